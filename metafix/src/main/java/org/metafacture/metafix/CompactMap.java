@@ -0,0 +1,504 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * An insertion-ordered map with string keys that keeps up to
+ * {@value #MAX_INLINE_SIZE} entries in inline parallel arrays, looked up by
+ * linear search, and only switches to a {@link LinkedHashMap} when it grows
+ * beyond that. Most nested hashes in metadata records are small, and the arrays
+ * take a fraction of the memory of hash table entries. Clearing the map keeps
+ * its storage, so that a recycled record can be refilled without reallocating.
+ * A map can also {@link #share(CompactMap) share} the storage of another map
+ * until either of them is modified, which makes copying it O(1).
+ *
+ * @param <V> the type of the values
+ */
+/*package-private*/ final class CompactMap<V> extends AbstractMap<String, V> {
+
+    /*package-private*/ static final int MAX_INLINE_SIZE = 8;
+
+    private static final int INITIAL_CAPACITY = 2;
+
+    private String[] keys;
+    private Object[] values;
+    private int size;
+
+    private Map<String, V> map;
+
+    private int modCount;
+    private boolean shared;
+
+    /*package-private*/ CompactMap() {
+    }
+
+    @Override
+    public int size() {
+        return map != null ? map.size() : size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return map != null ? map.containsKey(key) : indexOf(key) >= 0;
+    }
+
+    @Override
+    public V get(final Object key) {
+        final V result;
+
+        if (map != null) {
+            result = map.get(key);
+        }
+        else {
+            final int index = indexOf(key);
+            result = index >= 0 ? value(index) : null;
+        }
+
+        return result;
+    }
+
+    /**
+     * Makes this map a copy of the given map, sharing its storage until either
+     * of them is modified.
+     *
+     * @param other the map to copy
+     */
+    /*package-private*/ void share(final CompactMap<V> other) {
+        keys = other.keys;
+        values = other.values;
+        size = other.size;
+        map = other.map;
+
+        // Both sides copy before their next write, since neither knows whether the other one is still in use.
+        shared = true;
+        other.shared = true;
+
+        ++modCount;
+    }
+
+    @Override
+    public V put(final String key, final V value) {
+        unshare();
+
+        V result = null;
+
+        if (map != null) {
+            result = map.put(key, value);
+        }
+        else {
+            final int index = indexOf(key);
+
+            if (index >= 0) {
+                result = value(index);
+                values[index] = value;
+            }
+            else if (size < MAX_INLINE_SIZE) {
+                append(key, value);
+            }
+            else {
+                inflate().put(key, value);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public V remove(final Object key) {
+        V result = null;
+
+        if (map != null) {
+            if (map.containsKey(key)) {
+                unshare();
+                result = map.remove(key);
+            }
+        }
+        else {
+            final int index = indexOf(key);
+
+            if (index >= 0) {
+                result = value(index);
+                removeAt(index);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        if (shared) {
+            map = null;
+            keys = null;
+            values = null;
+            size = 0;
+            shared = false;
+        }
+        else if (map != null) {
+            map.clear();
+        }
+        else if (size > 0) {
+            Arrays.fill(keys, 0, size, null);
+            Arrays.fill(values, 0, size, null);
+            size = 0;
+        }
+
+        ++modCount;
+    }
+
+    @Override
+    public void forEach(final BiConsumer<? super String, ? super V> action) {
+        if (map != null) {
+            map.forEach(action);
+        }
+        else {
+            final int expectedModCount = modCount;
+
+            for (int i = 0; i < size; ++i) {
+                action.accept(keys[i], value(i));
+
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        final Set<Map.Entry<String, V>> result;
+
+        if (map != null) {
+            result = shared ? new SharedEntrySet() : map.entrySet();
+        }
+        else {
+            result = new EntrySet();
+        }
+
+        return result;
+    }
+
+    private void unshare() {
+        if (shared) {
+            if (map != null) {
+                map = new LinkedHashMap<>(map);
+            }
+            else if (keys != null) {
+                keys = keys.clone();
+                values = values.clone();
+            }
+
+            shared = false;
+        }
+    }
+
+    private int indexOf(final Object key) {
+        int result = -1;
+
+        for (int i = 0; i < size; ++i) {
+            // Interned field names (cf. SymbolTable) are found by identity alone.
+            if (keys[i] == key || keys[i].equals(key)) {
+                result = i;
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(final int index) {
+        return (V) values[index];
+    }
+
+    private void append(final String key, final V value) {
+        if (keys == null) {
+            keys = new String[INITIAL_CAPACITY];
+            values = new Object[INITIAL_CAPACITY];
+        }
+        else if (size == keys.length) {
+            final int capacity = Math.min(size * 2, MAX_INLINE_SIZE);
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        keys[size] = key;
+        values[size] = value;
+        ++size;
+        ++modCount;
+    }
+
+    private void removeAt(final int index) {
+        unshare();
+
+        final int moved = size - index - 1;
+
+        if (moved > 0) {
+            System.arraycopy(keys, index + 1, keys, index, moved);
+            System.arraycopy(values, index + 1, values, index, moved);
+        }
+
+        --size;
+        keys[size] = null;
+        values[size] = null;
+        ++modCount;
+    }
+
+    private Map<String, V> inflate() {
+        final Map<String, V> linkedMap = new LinkedHashMap<>();
+
+        for (int i = 0; i < size; ++i) {
+            linkedMap.put(keys[i], value(i));
+        }
+
+        map = linkedMap;
+        keys = null;
+        values = null;
+        size = 0;
+        ++modCount;
+
+        return linkedMap;
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<String, V>> {
+
+        private EntrySet() {
+        }
+
+        @Override
+        public int size() {
+            return CompactMap.this.size();
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, V>> iterator() {
+            return new EntryIterator();
+        }
+
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<String, V>> {
+
+        private int expectedModCount = modCount;
+        private int next;
+        private int last = -1;
+
+        private EntryIterator() {
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public Map.Entry<String, V> next() {
+            checkForComodification();
+
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+
+            last = next;
+            ++next;
+
+            return new InlineEntry(last);
+        }
+
+        @Override
+        public void remove() {
+            checkForComodification();
+
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+
+            removeAt(last);
+
+            next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+    }
+
+    /**
+     * A view of the entries of a shared map, which only copies the map when
+     * an entry is removed or replaced through it.
+     */
+    private final class SharedEntrySet extends AbstractSet<Map.Entry<String, V>> {
+
+        private SharedEntrySet() {
+        }
+
+        @Override
+        public int size() {
+            return CompactMap.this.size();
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, V>> iterator() {
+            final Iterator<Map.Entry<String, V>> result;
+
+            if (map == null) {
+                result = new EntryIterator();
+            }
+            else if (shared) {
+                result = new SharedEntryIterator(map.entrySet().iterator());
+            }
+            else {
+                result = map.entrySet().iterator();
+            }
+
+            return result;
+        }
+
+    }
+
+    private final class SharedEntryIterator implements Iterator<Map.Entry<String, V>> {
+
+        private final Iterator<Map.Entry<String, V>> iterator;
+        private String last;
+
+        private SharedEntryIterator(final Iterator<Map.Entry<String, V>> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, V> next() {
+            final Map.Entry<String, V> entry = iterator.next();
+            last = entry.getKey();
+
+            return new SharedEntry(entry);
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+
+            // The shared map stays unchanged, so iterating it can continue.
+            unshare();
+            map.remove(last);
+            last = null;
+        }
+
+    }
+
+    private final class SharedEntry extends AbstractMap.SimpleEntry<String, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private SharedEntry(final Map.Entry<String, V> entry) {
+            super(entry);
+        }
+
+        @Override
+        public V setValue(final V value) {
+            unshare();
+            map.put(getKey(), value);
+
+            return super.setValue(value);
+        }
+
+    }
+
+    private final class InlineEntry implements Map.Entry<String, V> {
+
+        private final String key;
+        private final int index;
+
+        private InlineEntry(final int index) {
+            this.index = index;
+            key = keys[index];
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value(index);
+        }
+
+        @Override
+        public V setValue(final V value) {
+            unshare();
+
+            final V result = value(index);
+            values[index] = value;
+            return result;
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            if (object == this) {
+                return true;
+            }
+
+            if (!(object instanceof Map.Entry)) {
+                return false;
+            }
+
+            final Map.Entry<?, ?> other = (Map.Entry<?, ?>) object;
+            return key.equals(other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix;
+
+import org.metafacture.metafix.fix.Fix;
+import org.metafacture.metafix.maps.LoadingMap;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Holds a parsed and validated Fix definition, along with all Fix files
+ * parsed on its behalf (e.g. {@link FixMethod#include included} ones). A
+ * compiled Fix can be shared by any number of {@link Metafix} instances, e.g.
+ * one per worker thread. It isn't immutable: included Fix files, interned
+ * field names and prepared lookup maps are added as the instances need them,
+ * but all of these are thread-safe. Each instance keeps its own record state,
+ * variables, named maps and macros.
+ */
+public final class CompiledFix {
+
+    private static final boolean RUNTIME_PARSER = Boolean.parseBoolean(System.getProperty("org.metafacture.metafix.runtimeParser"));
+    private static final String PARSER_NAME = RUNTIME_PARSER ? "runtime" : "xtext";
+
+    private final Map<List<?>, Map<String, String>> mapCache = new ConcurrentHashMap<>();
+    private final Map<String, Fix> fixCache = new ConcurrentHashMap<>();
+    private final SymbolTable symbolTable = new SymbolTable();
+    private final Fix fix;
+    private final String fixFile;
+
+    private CompiledFix(final Fix fix, final String fixFile) {
+        this.fix = fix;
+        this.fixFile = fixFile;
+
+        symbolTable.seed(fix);
+    }
+
+    /**
+     * Compiles the given Fix definition.
+     *
+     * @param fixDef the path to a Fix file, or the Fix expressions themselves
+     * @return the compiled Fix
+     */
+    public static CompiledFix compile(final String fixDef) {
+        final CompiledFix compiledFix;
+
+        if (Metafix.isFixFile(fixDef)) {
+            compiledFix = new CompiledFix(parseFix(fixDef), fixDef);
+            compiledFix.fixCache.put(fixDef, compiledFix.fix);
+        }
+        else {
+            compiledFix = compile(new StringReader(fixDef));
+        }
+
+        return compiledFix;
+    }
+
+    /**
+     * Compiles the given Fix definition.
+     *
+     * @param fixDef the Fix expressions
+     * @return the compiled Fix
+     */
+    public static CompiledFix compile(final Reader fixDef) {
+        return new CompiledFix(parseFix(fixDef), null);
+    }
+
+    private static Fix parseFix(final String path) {
+        return FixCache.isEnabled() ? FixCache.getFix(path, PARSER_NAME, c -> parseUncached(new StringReader(c), path)) : parseUncached(path);
+    }
+
+    private static Fix parseFix(final Reader fixDef) {
+        return FixCache.isEnabled() ? FixCache.getFix(fixDef, PARSER_NAME, CompiledFix::parseUncached) : parseUncached(fixDef);
+    }
+
+    // The runtime parser skips setting up Xtext/Xbase, cf. FixRuntimeParser.
+    private static Fix parseUncached(final String path) {
+        return RUNTIME_PARSER ? FixRuntimeParser.parseFix(path) : FixStandaloneSetup.parseFix(path);
+    }
+
+    private static Fix parseUncached(final Reader fixDef) {
+        return RUNTIME_PARSER ? FixRuntimeParser.parseFix(fixDef) : FixStandaloneSetup.parseFix(fixDef);
+    }
+
+    // Parses the given content of the Fix file, e.g. the one it was cached by.
+    private static Fix parseUncached(final Reader fixDef, final String path) {
+        return RUNTIME_PARSER ? FixRuntimeParser.parseFix(fixDef, path) : FixStandaloneSetup.parseFix(fixDef, path);
+    }
+
+    // Each instance gets its own caches, so that unrelated Metafix instances
+    // don't share included Fix files and lookup maps.
+    /*package-private*/ static CompiledFix empty() {
+        return new CompiledFix(null, null);
+    }
+
+    /**
+     * Returns the path of the compiled Fix file, if any.
+     *
+     * @return the path to the Fix file, or null if compiled from Fix expressions
+     */
+    public String getFixFile() {
+        return fixFile;
+    }
+
+    /*package-private*/ Fix getFix() {
+        return fix;
+    }
+
+    /*package-private*/ Fix getFix(final String path) {
+        return fixCache.computeIfAbsent(path, this::parseIncluded);
+    }
+
+    private Fix parseIncluded(final String path) {
+        final Fix includedFix = parseFix(path);
+        symbolTable.seed(includedFix);
+        return includedFix;
+    }
+
+    /**
+     * Returns the lookup map for the given key, creating it on first request.
+     * The map is shared by all {@link Metafix} instances using this compiled
+     * Fix, e.g. all workers of a {@link MetafixParallel}, so it's loaded only
+     * once and must not be modified. Maps whose arguments contain variables
+     * are cached by their resolved arguments, so that they aren't set up (and
+     * possibly loaded) again for every record.
+     *
+     * @param key the map's (resolved) arguments
+     * @param supplier creates the map
+     * @return the shared map
+     */
+    /*package-private*/ Map<String, String> getMap(final List<?> key, final Supplier<Map<String, String>> supplier) {
+        return mapCache.computeIfAbsent(key, k -> LoadingMap.shared(supplier.get()));
+    }
+
+    /*package-private*/ SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+}
@@ -23,6 +23,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public enum FixBind implements FixContext {
 
@@ -47,7 +48,7 @@ public enum FixBind implements FixContext {
                         value.matchType()
                             .ifHash(h -> {
                                 final Record scopeRecord = new Record();
-                                scopeRecord.addAll(h);
+                                scopeRecord.share(h);
 
                                 recordTransformer.transform(scopeRecord);
                                 a.set(index, new Value(scopeRecord));
@@ -89,7 +90,7 @@ public enum FixBind implements FixContext {
     },
 
     once {
-        private final Map<Metafix, Set<String>> executed = new HashMap<>();
+        private final Map<Metafix, Set<String>> executed = new ConcurrentHashMap<>();
 
         @Override
         public void execute(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options, final RecordTransformer recordTransformer) {
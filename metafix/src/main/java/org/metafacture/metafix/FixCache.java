@@ -0,0 +1,457 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix;
+
+import org.metafacture.metafix.fix.Do;
+import org.metafacture.metafix.fix.ElsIf;
+import org.metafacture.metafix.fix.Else;
+import org.metafacture.metafix.fix.Expression;
+import org.metafacture.metafix.fix.Fix;
+import org.metafacture.metafix.fix.FixFactory;
+import org.metafacture.metafix.fix.If;
+import org.metafacture.metafix.fix.MethodCall;
+import org.metafacture.metafix.fix.Options;
+import org.metafacture.metafix.fix.Unless;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.xtext.nodemodel.INode;
+import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Caches parsed and validated Fix definitions on disk, keyed by a hash of
+ * their content, the parser that produced them and the implementation (version
+ * and grammar) of Metafix, so that entries of unvalidated runtime parser runs
+ * are never served to Xtext runs and entries don't survive upgrades. Loading a cached Fix doesn't touch Xtext. Included Fix files
+ * are cached the same way, each under the hash of its own content, so changes
+ * to any file of the include graph only invalidate that file's entry.
+ *
+ * Enabled by setting the system property
+ * {@code org.metafacture.metafix.cacheDir} to the cache directory.
+ */
+/*package-private*/ final class FixCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FixCache.class);
+
+    private static final String CACHE_DIR = System.getProperty("org.metafacture.metafix.cacheDir");
+    private static final String CACHE_EXTENSION = ".fixc";
+
+    private static final FixFactory FACTORY = FixFactory.eINSTANCE;
+
+    private static final int MAGIC = 0x4d465843; // "MFXC"
+    private static final int VERSION = 1;
+
+    private static final String[] GRAMMAR_RESOURCES = {"Fix.xtextbin", "Fix.xtext"};
+    private static final String IMPLEMENTATION = implementation();
+
+    private static final byte KIND_METHOD_CALL = 0;
+    private static final byte KIND_IF = 1;
+    private static final byte KIND_UNLESS = 2;
+    private static final byte KIND_DO = 3;
+
+    private FixCache() {
+        throw new IllegalAccessError("Utility class");
+    }
+
+    /*package-private*/ static boolean isEnabled() {
+        return CACHE_DIR != null;
+    }
+
+    private static String implementation() {
+        final Hasher hasher = Hashing.sha256().newHasher();
+        hasher.putString(String.valueOf(FixCache.class.getPackage().getImplementationVersion()), StandardCharsets.UTF_8);
+
+        for (final String grammar : GRAMMAR_RESOURCES) {
+            try (InputStream in = FixCache.class.getResourceAsStream(grammar)) {
+                if (in != null) {
+                    hasher.putBytes(ByteStreams.toByteArray(in));
+                }
+            }
+            catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return hasher.hash().toString();
+    }
+
+    /*package-private*/ static String cacheKey(final String content, final String parserName) {
+        return Hashing.sha256().newHasher()
+            .putString(IMPLEMENTATION, StandardCharsets.UTF_8)
+            .putString(parserName, StandardCharsets.UTF_8)
+            .putString(content, StandardCharsets.UTF_8)
+            .hash().toString();
+    }
+
+    // The parser gets the content that was read here, so that the entry matches its key even if the file changes meanwhile.
+    /*package-private*/ static Fix getFix(final String path, final String parserName, final Function<String, Fix> parser) {
+        final String content;
+
+        try {
+            content = new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8);
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return getFix(content, parserName, () -> FixRuntimeParser.fileUri(path), () -> parser.apply(content));
+    }
+
+    /*package-private*/ static Fix getFix(final Reader fixDef, final String parserName, final Function<Reader, Fix> parser) {
+        final String content;
+
+        try {
+            content = CharStreams.toString(fixDef);
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return getFix(content, parserName, FixRuntimeParser::inlineUri, () -> parser.apply(new StringReader(content)));
+    }
+
+    private static Fix getFix(final String content, final String parserName, final Supplier<URI> uri, final Supplier<Fix> parser) {
+        final Path cacheFile = Paths.get(CACHE_DIR, cacheKey(content, parserName) + CACHE_EXTENSION);
+        Fix fix = Files.isRegularFile(cacheFile) ? read(cacheFile, uri.get()) : null;
+
+        if (fix == null) {
+            fix = parser.get();
+            write(cacheFile, fix, content);
+        }
+
+        return fix;
+    }
+
+    /*package-private*/ static Fix read(final Path cacheFile, final URI uri) {
+        Fix fix = null;
+
+        try (InputStream in = Files.newInputStream(cacheFile)) {
+            fix = new Input(in, Files.size(cacheFile)).readFix();
+            new ResourceImpl(uri).getContents().add(fix);
+        }
+        catch (final IOException e) {
+            LOG.warn("Failed to read cached Fix '{}', parsing again: {}", cacheFile, e.toString());
+        }
+
+        return fix;
+    }
+
+    // Written to a temporary file first so that concurrent runs never see partial entries.
+    /*package-private*/ static void write(final Path cacheFile, final Fix fix, final String source) {
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            final Path tempFile = Files.createTempFile(cacheFile.getParent(), "metafix", CACHE_EXTENSION);
+
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                new Output(out, source).writeFix(fix);
+            }
+
+            Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (final IOException e) {
+            LOG.warn("Failed to write cached Fix '{}': {}", cacheFile, e.toString());
+        }
+    }
+
+    private static final class Input {
+
+        private final DataInputStream in;
+        private final long size;
+
+        private String source;
+
+        private Input(final InputStream in, final long size) {
+            this.in = new DataInputStream(new BufferedInputStream(in));
+            this.size = size;
+        }
+
+        private Fix readFix() throws IOException {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported cache format");
+            }
+
+            source = readString();
+
+            final Fix fix = FACTORY.createFix();
+            readElements(fix.getElements());
+
+            return fix;
+        }
+
+        private void readElements(final List<Expression> elements) throws IOException {
+            final int size = in.readInt();
+
+            for (int i = 0; i < size; ++i) {
+                elements.add(readExpression());
+            }
+        }
+
+        private Expression readExpression() throws IOException {
+            final byte kind = in.readByte();
+            final Expression expression;
+
+            switch (kind) {
+                case KIND_METHOD_CALL:
+                    final MethodCall methodCall = FACTORY.createMethodCall();
+                    readCall(methodCall::setName, methodCall.getParams(), methodCall::setOptions);
+                    expression = methodCall;
+                    break;
+                case KIND_IF:
+                    expression = readIf();
+                    break;
+                case KIND_UNLESS:
+                    final Unless unless = FACTORY.createUnless();
+                    readCall(unless::setName, unless.getParams(), unless::setOptions);
+                    readElements(unless.getElements());
+                    expression = unless;
+                    break;
+                case KIND_DO:
+                    final Do doExpression = FACTORY.createDo();
+                    readCall(doExpression::setName, doExpression.getParams(), doExpression::setOptions);
+                    readElements(doExpression.getElements());
+                    expression = doExpression;
+                    break;
+                default:
+                    throw new IOException("Unknown expression kind: " + kind);
+            }
+
+            return readLocation(expression);
+        }
+
+        private If readIf() throws IOException {
+            final If ifExpression = FACTORY.createIf();
+            readCall(ifExpression::setName, ifExpression.getParams(), ifExpression::setOptions);
+            readElements(ifExpression.getElements());
+
+            final int size = in.readInt();
+
+            for (int i = 0; i < size; ++i) {
+                final ElsIf elseIfExpression = FACTORY.createElsIf();
+                readCall(elseIfExpression::setName, elseIfExpression.getParams(), elseIfExpression::setOptions);
+                readElements(elseIfExpression.getElements());
+
+                ifExpression.getElseIf().add(readLocation(elseIfExpression));
+            }
+
+            if (in.readBoolean()) {
+                final Else elseExpression = FACTORY.createElse();
+                readElements(elseExpression.getElements());
+
+                ifExpression.setElse(readLocation(elseExpression));
+            }
+
+            return ifExpression;
+        }
+
+        private void readCall(final Consumer<String> name, final List<String> params, final Consumer<Options> options) throws IOException {
+            name.accept(readString());
+            readStrings(params);
+
+            if (in.readBoolean()) {
+                final Options result = FACTORY.createOptions();
+                readStrings(result.getKeys());
+                readStrings(result.getValues());
+
+                options.accept(result);
+            }
+        }
+
+        private <T extends EObject> T readLocation(final T object) throws IOException {
+            final int start = in.readInt();
+            final int end = in.readInt();
+            final int line = in.readInt();
+
+            object.eAdapters().add(new FixRuntimeParser.Location(source, start, end, line));
+            return object;
+        }
+
+        private void readStrings(final List<String> strings) throws IOException {
+            final int size = in.readInt();
+
+            for (int i = 0; i < size; ++i) {
+                strings.add(readString());
+            }
+        }
+
+        // DataInput.readUTF() is limited to 64 KB.
+        private String readString() throws IOException {
+            final int length = in.readInt();
+
+            // don't trust corrupt entries with allocations
+            if (length < 0 || length > size) {
+                throw new IOException("Invalid string length: " + length);
+            }
+
+            final byte[] bytes = new byte[length];
+            in.readFully(bytes);
+
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+    }
+
+    private static final class Output {
+
+        private final DataOutputStream out;
+        private final String source;
+
+        private Output(final OutputStream out, final String source) {
+            this.out = new DataOutputStream(new BufferedOutputStream(out));
+            this.source = source;
+        }
+
+        private void writeFix(final Fix fix) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            writeString(source);
+            writeElements(fix.getElements());
+
+            out.flush();
+        }
+
+        private void writeElements(final List<Expression> elements) throws IOException {
+            out.writeInt(elements.size());
+
+            for (final Expression expression : elements) {
+                writeExpression(expression);
+            }
+        }
+
+        private void writeExpression(final Expression expression) throws IOException {
+            if (expression instanceof If) {
+                out.writeByte(KIND_IF);
+                writeIf((If) expression);
+            }
+            else if (expression instanceof Unless) {
+                out.writeByte(KIND_UNLESS);
+                writeCall(expression.getName(), expression.getParams(), expression.getOptions());
+                writeElements(((Unless) expression).getElements());
+            }
+            else if (expression instanceof Do) {
+                out.writeByte(KIND_DO);
+                writeCall(expression.getName(), expression.getParams(), expression.getOptions());
+                writeElements(((Do) expression).getElements());
+            }
+            else if (expression instanceof MethodCall) {
+                out.writeByte(KIND_METHOD_CALL);
+                writeCall(expression.getName(), expression.getParams(), expression.getOptions());
+            }
+            else {
+                throw new IOException("Unsupported expression: " + expression);
+            }
+
+            writeLocation(expression);
+        }
+
+        private void writeIf(final If ifExpression) throws IOException {
+            writeCall(ifExpression.getName(), ifExpression.getParams(), ifExpression.getOptions());
+            writeElements(ifExpression.getElements());
+
+            out.writeInt(ifExpression.getElseIf().size());
+
+            for (final ElsIf elseIfExpression : ifExpression.getElseIf()) {
+                writeCall(elseIfExpression.getName(), elseIfExpression.getParams(), elseIfExpression.getOptions());
+                writeElements(elseIfExpression.getElements());
+                writeLocation(elseIfExpression);
+            }
+
+            final Else elseExpression = ifExpression.getElse();
+            out.writeBoolean(elseExpression != null);
+
+            if (elseExpression != null) {
+                writeElements(elseExpression.getElements());
+                writeLocation(elseExpression);
+            }
+        }
+
+        private void writeCall(final String name, final List<String> params, final Options options) throws IOException {
+            writeString(name);
+            writeStrings(params);
+
+            out.writeBoolean(options != null);
+
+            if (options != null) {
+                writeStrings(options.getKeys());
+                writeStrings(options.getValues());
+            }
+        }
+
+        // The location of an expression either comes from the Xtext node model
+        // or from the runtime parser.
+        private void writeLocation(final EObject object) throws IOException {
+            final INode node = NodeModelUtils.getNode(object);
+
+            if (node != null) {
+                out.writeInt(node.getOffset());
+                out.writeInt(node.getEndOffset());
+                out.writeInt(node.getStartLine());
+            }
+            else {
+                final FixRuntimeParser.Location location = FixRuntimeParser.getLocation(object);
+
+                out.writeInt(location.getStart());
+                out.writeInt(location.getEnd());
+                out.writeInt(location.getLine());
+            }
+        }
+
+        private void writeStrings(final List<String> strings) throws IOException {
+            out.writeInt(strings.size());
+
+            for (final String string : strings) {
+                writeString(string);
+            }
+        }
+
+        private void writeString(final String string) throws IOException {
+            final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+    }
+
+}
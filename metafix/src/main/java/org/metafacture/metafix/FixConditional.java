@@ -20,6 +20,8 @@ import org.metafacture.metafix.api.FixPredicate;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.regex.Pattern;
 
 public enum FixConditional implements FixPredicate {
 
@@ -41,7 +43,7 @@ public enum FixConditional implements FixPredicate {
             return !any_contain.test(metafix, record, params, options);
         }
     },
-    str_contain {
+    str_contain(0) {
         @Override
         public boolean test(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             return testConditional(params, CONTAINS);
@@ -66,7 +68,7 @@ public enum FixConditional implements FixPredicate {
             return !any_equal.test(metafix, record, params, options);
         }
     },
-    str_equal {
+    str_equal(0) {
         @Override
         public boolean test(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             return testConditional(params, EQUALS);
@@ -80,7 +82,7 @@ public enum FixConditional implements FixPredicate {
         }
     },
 
-    in {
+    in(2) {
         @Override
         public boolean test(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             final Value value1 = record.get(params.get(0));
@@ -103,7 +105,7 @@ public enum FixConditional implements FixPredicate {
             );
         }
     },
-    is_contained_in {
+    is_contained_in(2) {
         @Override
         public boolean test(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             return in.test(metafix, record, params, options);
@@ -164,24 +166,68 @@ public enum FixConditional implements FixPredicate {
         public boolean test(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             return testConditional(record, params, ALL, MATCHES);
         }
+
+        @Override
+        public FixPredicate prepare(final Metafix metafix, final List<String> params, final Map<String, String> options) {
+            final BiPredicate<String, String> matches = matches(params.get(1));
+            return (mf, record, ps, os) -> testConditional(record, ps, ALL, matches);
+        }
     },
     any_match {
         @Override
         public boolean test(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             return testConditional(record, params, ANY, MATCHES);
         }
+
+        @Override
+        public FixPredicate prepare(final Metafix metafix, final List<String> params, final Map<String, String> options) {
+            final BiPredicate<String, String> matches = matches(params.get(1));
+            return (mf, record, ps, os) -> testConditional(record, ps, ANY, matches);
+        }
     },
     none_match {
         @Override
         public boolean test(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             return !any_match.test(metafix, record, params, options);
         }
+
+        @Override
+        public FixPredicate prepare(final Metafix metafix, final List<String> params, final Map<String, String> options) {
+            final FixPredicate anyMatch = any_match.prepare(metafix, params, options);
+            return (mf, record, ps, os) -> !anyMatch.test(mf, record, ps, os);
+        }
     },
-    str_match {
+    str_match(0) {
         @Override
         public boolean test(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             return testConditional(params, MATCHES);
         }
+
+        @Override
+        public FixPredicate prepare(final Metafix metafix, final List<String> params, final Map<String, String> options) {
+            final boolean result = testConditional(params, MATCHES);
+            return (mf, record, ps, os) -> result;
+        }
+    };
+
+    private final int fieldParams;
+
+    FixConditional() {
+        this(1);
+    }
+
+    FixConditional(final int fieldParams) {
+        this.fieldParams = fieldParams;
+    }
+
+    @Override
+    public int getFieldParams() {
+        return fieldParams;
+    }
+
+    private static BiPredicate<String, String> matches(final String regex) {
+        final Pattern pattern = PatternCache.get(regex);
+        return (s, r) -> pattern.matcher(s).matches();
     }
 
 }
@@ -17,7 +17,10 @@
 package org.metafacture.metafix;
 
 import org.metafacture.metafix.api.FixFunction;
+import org.metafacture.metafix.maps.BloomFilterMap;
+import org.metafacture.metafix.maps.MmapMap;
 import org.metafacture.metafix.maps.RdfMap;
+import org.metafacture.metafix.maps.SnapshotMap;
 import org.metafacture.metamorph.api.Maps;
 import org.metafacture.metamorph.functions.ISBN;
 import org.metafacture.metamorph.functions.Timestamp;
@@ -29,18 +32,20 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -50,7 +55,7 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
 
     // SCRIPT-LEVEL METHODS:
 
-    include {
+    include(0) {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             final String includeFile = params.get(0);
@@ -65,7 +70,7 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
             metafix.getRecordTransformer(includePath).transform(record, options);
         }
     },
-    log {
+    log(0) {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             // does not support Catmandu log level option FATAL
@@ -93,20 +98,34 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
             consumer.accept(params.get(0));
         }
     },
-    nothing {
+    nothing(0) {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             // do nothing
         }
     },
-    put_filemap {
+    put_filemap(0) {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             final String fileName = params.get(0);
+            metafix.putMap(params.size() > 1 ? params.get(1) : fileName, sharedMap(metafix, fileName, options, () -> fileMap(metafix, fileName, options)));
+        }
+
+        @Override
+        public FixFunction prepare(final Metafix metafix, final List<String> params, final Map<String, String> options) {
+            final String fileName = params.get(0);
+            final String mapName = params.size() > 1 ? params.get(1) : fileName;
+            final Map<String, String> map = sharedMap(metafix, fileName, options, () -> fileMap(metafix, fileName, options));
+
+            return (mf, record, ps, os) -> mf.putMap(mapName, map);
+        }
+
+        private Map<String, String> fileMap(final Metafix metafix, final String fileName, final Map<String, String> options) {
             final FileMap fileMap = new FileMap();
+            final String file = metafix.resolvePath(fileName);
 
             fileMap.setSeparator(options.getOrDefault(FILEMAP_SEPARATOR_OPTION, FILEMAP_DEFAULT_SEPARATOR));
-            fileMap.setFile(metafix.resolvePath(fileName));
+            fileMap.setFile(file);
 
             withOption(options, "allow_empty_values", fileMap::setAllowEmptyValues, this::getBoolean);
             withOption(options, "compression", fileMap::setCompression);
@@ -117,19 +136,67 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
             withOption(options, "key_column", fileMap::setKeyColumn, this::getInteger);
             withOption(options, "value_column", fileMap::setValueColumn, this::getInteger);
 
-            metafix.putMap(params.size() > 1 ? params.get(1) : fileName, fileMap);
+            final String snapshot = options.get(SnapshotMap.SNAPSHOT_OPTION);
+
+            if (snapshot != null) {
+                final SnapshotMap snapshotMap = new SnapshotMap(metafix.resolvePath(snapshot), Collections.singletonList(file), options,
+                        c -> fileMap.keySet().forEach(k -> c.accept(k, fileMap.get(k))));
+
+                return BloomFilterMap.of(snapshotMap, snapshotMap::load, snapshotMap::forEachKey, options);
+            }
+
+            // FileMap loads its files on first access
+            return BloomFilterMap.of(fileMap, () -> fileMap.get(Maps.DEFAULT_MAP_KEY), c -> fileMap.keySet().forEach(c), options);
         }
     },
-    put_map {
+    put_map(0) {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             metafix.putMap(params.get(0), options);
         }
     },
-    put_rdfmap {
+    put_mmapmap(0) {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             final String fileName = params.get(0);
+            metafix.putMap(params.size() > 1 ? params.get(1) : fileName, sharedMap(metafix, fileName, options, () -> mmapMap(metafix, fileName, options)));
+        }
+
+        @Override
+        public FixFunction prepare(final Metafix metafix, final List<String> params, final Map<String, String> options) {
+            final String fileName = params.get(0);
+            final String mapName = params.size() > 1 ? params.get(1) : fileName;
+            final Map<String, String> map = sharedMap(metafix, fileName, options, () -> mmapMap(metafix, fileName, options));
+
+            return (mf, record, ps, os) -> mf.putMap(mapName, map);
+        }
+
+        private Map<String, String> mmapMap(final Metafix metafix, final String fileName, final Map<String, String> options) {
+            final MmapMap mmapMap = new MmapMap(metafix.resolvePath(fileName));
+
+            withOption(options, "source", s -> mmapMap.setSource(metafix.resolvePath(s),
+                    options.getOrDefault(FILEMAP_SEPARATOR_OPTION, FILEMAP_DEFAULT_SEPARATOR)));
+
+            return BloomFilterMap.of(mmapMap, mmapMap::load, mmapMap::forEachKey, options);
+        }
+    },
+    put_rdfmap(0) {
+        @Override
+        public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
+            final String fileName = params.get(0);
+            metafix.putMap(params.size() > 1 ? params.get(1) : fileName, sharedMap(metafix, fileName, options, () -> rdfMap(metafix, fileName, options)));
+        }
+
+        @Override
+        public FixFunction prepare(final Metafix metafix, final List<String> params, final Map<String, String> options) {
+            final String fileName = params.get(0);
+            final String mapName = params.size() > 1 ? params.get(1) : fileName;
+            final Map<String, String> map = sharedMap(metafix, fileName, options, () -> rdfMap(metafix, fileName, options));
+
+            return (mf, record, ps, os) -> mf.putMap(mapName, map);
+        }
+
+        private Map<String, String> rdfMap(final Metafix metafix, final String fileName, final Map<String, String> options) {
             final RdfMap rdfMap = new RdfMap();
 
             rdfMap.setResource(fileName, metafix::resolvePath);
@@ -139,16 +206,23 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
             withOption(options, RdfMap.SELECT, rdfMap::setSelect);
             withOption(options, Maps.DEFAULT_MAP_KEY, rdfMap::setDefault);
 
-            metafix.putMap(params.size() > 1 ? params.get(1) : fileName, rdfMap);
+            final String snapshot = options.get(SnapshotMap.SNAPSHOT_OPTION);
+
+            if (snapshot != null) {
+                final SnapshotMap snapshotMap = new SnapshotMap(metafix.resolvePath(snapshot), rdfMap.getResources(), options, rdfMap::forEachEntry);
+                return BloomFilterMap.of(snapshotMap, snapshotMap::load, snapshotMap::forEachKey, options);
+            }
+
+            return BloomFilterMap.of(rdfMap, rdfMap::load, rdfMap::forEachKey, options);
         }
     },
-    put_var {
+    put_var(0) {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             metafix.getVars().put(params.get(0), params.get(1));
         }
     },
-    put_vars {
+    put_vars(0) {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             metafix.getVars().putAll(options);
@@ -202,7 +276,7 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
             })));
         }
     },
-    call_macro {
+    call_macro(0) {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             final String macroName = params.get(0);
@@ -216,7 +290,7 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
             }
         }
     },
-    copy_field {
+    copy_field(2) {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             final String oldName = params.get(0);
@@ -256,7 +330,7 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
             })));
         }
     },
-    move_field {
+    move_field(2) {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             FixMethod.copy_field.apply(metafix, record, params, options);
@@ -266,31 +340,40 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
     parse_text {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
+            final Pattern p = PatternCache.get(params.get(1));
+            parseText(record, params.get(0), p, namedGroups(p));
+        }
+
+        @Override
+        public FixFunction prepare(final Metafix metafix, final List<String> params, final Map<String, String> options) {
             final String field = params.get(0);
+            final Pattern p = PatternCache.get(params.get(1));
+            final List<String> groups = namedGroups(p);
+
+            return (mf, record, ps, os) -> parseText(record, field, p, groups);
+        }
+
+        // Pattern.namedGroups() not available as API, see https://stackoverflow.com/a/65012527.
+        // Assumptions: 1. Named groups are not escaped/quoted; 2. Named groups are not mixed with unnamed groups.
+        private List<String> namedGroups(final Pattern p) {
+            final List<String> groups = new ArrayList<>();
+            final Matcher groupMatcher = NAMED_GROUP_PATTERN.matcher(p.pattern());
 
+            while (groupMatcher.find()) {
+                groups.add(groupMatcher.group(1));
+            }
+
+            return groups;
+        }
+
+        private void parseText(final Record record, final String field, final Pattern p, final List<String> groups) {
             record.getList(field, a -> a.forEach(v -> {
-                final Pattern p = Pattern.compile(params.get(1));
                 final Matcher m = p.matcher(v.asString());
                 if (m.matches()) {
                     record.remove(field);
 
-                    /**
-                     * {@code Pattern.namedGroups()} not available as API,
-                     * see https://stackoverflow.com/a/65012527.
-                     *
-                     * Assumptions: 1. Named groups are not escaped/quoted;
-                     * 2. Named groups are not mixed with unnamed groups.
-                     */
-                    final Matcher groupMatcher = NAMED_GROUP_PATTERN.matcher(p.pattern());
-                    final Value value = Value.newHash(h -> {
-                        while (groupMatcher.find()) {
-                            final String group = groupMatcher.group(1);
-                            h.put(group, new Value(m.group(group)));
-                        }
-                    });
-
-                    if (!value.asHash().isEmpty()) {
-                        record.addNested(field, value);
+                    if (!groups.isEmpty()) {
+                        record.addNested(field, Value.newHash(h -> groups.forEach(g -> h.put(g, new Value(m.group(g))))));
                     }
                     else {
                         for (int i = 1; i <= m.groupCount(); i = i + 1) {
@@ -301,7 +384,7 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
             }));
         }
     },
-    paste {
+    paste(ALL_PARAMS) {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             final String joinChar = options.get("join_char");
@@ -316,8 +399,8 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
             return s.startsWith("~");
         }
     },
-    print_record {
-        private final Map<Metafix, LongAdder> scopedCounter = new HashMap<>();
+    print_record(0) {
+        private final Map<Metafix, LongAdder> scopedCounter = new ConcurrentHashMap<>();
 
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
@@ -356,13 +439,13 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
             record.set(field, new Value(String.valueOf(RANDOM.nextInt(max))));
         }
     },
-    reject {
+    reject(0) {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             record.setReject(true);
         }
     },
-    remove_field {
+    remove_field(ALL_PARAMS) {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             params.forEach(p -> record.remove(p));
@@ -371,12 +454,26 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
     rename {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
-            final String search = params.get(1);
+            rename(record, params.get(0), operator(params));
+        }
+
+        @Override
+        public FixFunction prepare(final Metafix metafix, final List<String> params, final Map<String, String> options) {
+            final String field = params.get(0);
+            final UnaryOperator<String> operator = operator(params);
+
+            return (mf, record, ps, os) -> rename(record, field, operator);
+        }
+
+        private UnaryOperator<String> operator(final List<String> params) {
+            final Pattern search = PatternCache.get(params.get(1));
             final String replace = params.get(2);
 
-            final UnaryOperator<String> operator = s -> s.replaceAll(search, replace);
+            return s -> search.matcher(s).replaceAll(replace);
+        }
 
-            record.transform(params.get(0), (m, c) -> m
+        private void rename(final Record record, final String field, final UnaryOperator<String> operator) {
+            record.transform(field, (m, c) -> m
                     .ifArray(a -> c.accept(renameArray(a, operator)))
                     .ifHash(h -> c.accept(renameHash(h, operator)))
                     .orElseThrow()
@@ -399,7 +496,7 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
             );
         }
     },
-    retain {
+    retain(ALL_PARAMS) {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             record.retainFields(params);
@@ -426,17 +523,28 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
     timestamp {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
+            record.set(params.get(0), new Value(newTimestamp(options).process(null)));
+        }
+
+        @Override
+        public FixFunction prepare(final Metafix metafix, final List<String> params, final Map<String, String> options) {
             final String field = params.get(0);
+            final Timestamp timestamp = newTimestamp(options);
+
+            return (mf, record, ps, os) -> record.set(field, new Value(timestamp.process(null)));
+        }
+
+        private Timestamp newTimestamp(final Map<String, String> options) {
             final Timestamp timestamp = new Timestamp();
 
             withOption(options, "format", timestamp::setFormat);
             withOption(options, "language", timestamp::setLanguage);
             withOption(options, "timezone", timestamp::setTimezone);
 
-            record.set(field, new Value(timestamp.process(null)));
+            return timestamp;
         }
     },
-    vacuum {
+    vacuum(0) {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
             record.removeEmptyValues();
@@ -478,13 +586,28 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
     filter {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
-            final Pattern search = Pattern.compile(params.get(1));
+            filter(record, params.get(0), predicate(params, options));
+        }
+
+        @Override
+        public FixFunction prepare(final Metafix metafix, final List<String> params, final Map<String, String> options) {
+            final String field = params.get(0);
+            final Predicate<Value> predicate = predicate(params, options);
+
+            return (mf, record, ps, os) -> filter(record, field, predicate);
+        }
+
+        private Predicate<Value> predicate(final List<String> params, final Map<String, String> options) {
+            final Pattern search = PatternCache.get(params.get(1));
             final boolean invert = getBoolean(options, "invert");
 
             final Predicate<Value> predicate = s -> search.matcher(s.asString()).find();
+            return invert ? predicate.negate() : predicate;
+        }
 
-            record.transform(params.get(0), (m, c) -> m
-                    .ifArray(a -> c.accept(newArray(a.stream().filter(invert ? predicate.negate() : predicate))))
+        private void filter(final Record record, final String field, final Predicate<Value> predicate) {
+            record.transform(field, (m, c) -> m
+                    .ifArray(a -> c.accept(newArray(a.stream().filter(predicate))))
             );
         }
     },
@@ -505,7 +628,9 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
             record.transform(params.get(0), (m, c) -> m
                     .ifString(s -> {
                         try {
-                            c.accept(parser.parse(s));
+                            // a JSON source holds at most one value per two characters (plus one)
+                            final int maxNodes = metafix.getMaxNodes(record, m, s.length() / 2 + 1);
+                            c.accept(metafix.checkRecordSize(record, m, parser.parse(s, maxNodes)));
                         }
                         catch (final IOException e) {
                             c.accept(errorString != null ? new Value(errorString) : null);
@@ -524,13 +649,25 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
     isbn {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
+            record.transform(params.get(0), newIsbn(options)::process);
+        }
+
+        @Override
+        public FixFunction prepare(final Metafix metafix, final List<String> params, final Map<String, String> options) {
+            final String field = params.get(0);
+            final ISBN isbn = newIsbn(options);
+
+            return (mf, record, ps, os) -> record.transform(field, isbn::process);
+        }
+
+        private ISBN newIsbn(final Map<String, String> options) {
             final ISBN isbn = new ISBN();
 
             withOption(options, ERROR_STRING_OPTION, isbn::setErrorString);
             withOption(options, "to", isbn::setTo);
             withOption(options, "verify_check_digit", isbn::setVerifyCheckDigit);
 
-            record.transform(params.get(0), isbn::process);
+            return isbn;
         }
     },
     join_field {
@@ -543,7 +680,7 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
         }
     },
     lookup {
-        private final Map<Metafix, LongAdder> scopedCounter = new HashMap<>();
+        private final Map<Metafix, LongAdder> scopedCounter = new ConcurrentHashMap<>();
 
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
@@ -604,10 +741,19 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
     replace_all {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
-            final String search = params.get(1);
+            final Pattern search = PatternCache.get(params.get(1));
             final String replace = params.get(2);
 
-            record.transform(params.get(0), s -> s.replaceAll(search, replace));
+            record.transform(params.get(0), s -> search.matcher(s).replaceAll(replace));
+        }
+
+        @Override
+        public FixFunction prepare(final Metafix metafix, final List<String> params, final Map<String, String> options) {
+            final String field = params.get(0);
+            final Pattern search = PatternCache.get(params.get(1));
+            final String replace = params.get(2);
+
+            return (mf, record, ps, os) -> record.transform(field, s -> search.matcher(s).replaceAll(replace));
         }
     },
     reverse {
@@ -643,16 +789,29 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
     split_field {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
-            final String splitChar = params.size() > 1 ? params.get(1) : "\\s+";
-            final Pattern splitPattern = Pattern.compile(splitChar);
+            splitField(metafix, record, params.get(0), splitPattern(params));
+        }
+
+        @Override
+        public FixFunction prepare(final Metafix metafix, final List<String> params, final Map<String, String> options) {
+            final String field = params.get(0);
+            final Pattern splitPattern = splitPattern(params);
+
+            return (mf, record, ps, os) -> splitField(mf, record, field, splitPattern);
+        }
+
+        private Pattern splitPattern(final List<String> params) {
+            return PatternCache.get(params.size() > 1 ? params.get(1) : "\\s+");
+        }
 
+        private void splitField(final Metafix metafix, final Record record, final String field, final Pattern splitPattern) {
             final Function<String, Value> splitFunction = s ->
                 newArray(Arrays.stream(splitPattern.split(s)).map(Value::new));
 
-            record.transform(params.get(0), (m, c) -> m
-                    .ifArray(a -> c.accept(newArray(a.stream().map(Value::asString).map(splitFunction))))
-                    .ifHash(h -> c.accept(Value.newHash(n -> h.forEach((f, w) -> n.put(f, splitFunction.apply(w.asString()))))))
-                    .ifString(s -> c.accept(splitFunction.apply(s)))
+            record.transform(field, (m, c) -> m
+                    .ifArray(a -> c.accept(metafix.checkRecordSize(record, m, newArray(a.stream().map(Value::asString).map(splitFunction)))))
+                    .ifHash(h -> c.accept(metafix.checkRecordSize(record, m, Value.newHash(n -> h.forEach((f, w) -> n.put(f, splitFunction.apply(w.asString())))))))
+                    .ifString(s -> c.accept(metafix.checkRecordSize(record, m, splitFunction.apply(s))))
             );
         }
     },
@@ -727,11 +886,23 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
     uri_encode {
         @Override
         public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
+            record.transform(params.get(0), newEncoder(options)::process);
+        }
+
+        @Override
+        public FixFunction prepare(final Metafix metafix, final List<String> params, final Map<String, String> options) {
+            final String field = params.get(0);
+            final URLEncode urlEncoder = newEncoder(options);
+
+            return (mf, record, ps, os) -> record.transform(field, urlEncoder::process);
+        }
+
+        private URLEncode newEncoder(final Map<String, String> options) {
             final URLEncode urlEncoder = new URLEncode();
             withOption(options, "safe_chars", urlEncoder::setSafeChars);
             withOption(options, "plus_for_space", urlEncoder::setPlusForSpace, this::getBoolean);
 
-            record.transform(params.get(0), urlEncoder::process);
+            return urlEncoder;
         }
     };
 
@@ -747,4 +918,23 @@ public enum FixMethod implements FixFunction { // checkstyle-disable-line ClassD
 
     private static final Logger LOG = LoggerFactory.getLogger(FixMethod.class);
 
+    private final int fieldParams;
+
+    FixMethod() {
+        this(1);
+    }
+
+    FixMethod(final int fieldParams) {
+        this.fieldParams = fieldParams;
+    }
+
+    @Override
+    public int getFieldParams() {
+        return fieldParams;
+    }
+
+    /*package-private*/ Map<String, String> sharedMap(final Metafix metafix, final String fileName, final Map<String, String> options, final Supplier<Map<String, String>> supplier) {
+        return metafix.getCompiledFix().getMap(Arrays.asList(name(), fileName, options), supplier);
+    }
+
 }
@@ -19,29 +19,83 @@ package org.metafacture.metafix;
 import org.metafacture.metafix.Value.Array;
 import org.metafacture.metafix.Value.Hash;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 /**
  * Our goal here is something like https://metacpan.org/pod/Catmandu::Path::simple
  *
  * With all get/set/update/create/delete logic collected here.
  *
+ * Instances are immutable: the path is split and its segments are classified
+ * once, and traversal only moves an offset into the shared segment arrays.
+ * Frequently used paths should be obtained via {@link #of(String)}.
+ *
  * @author Fabian Steeg (fsteeg)
  *
  */
 /*package-private*/ class FixPath {
 
+    public static final long DEFAULT_CACHE_SIZE = 10000;
+
     private static final String ASTERISK = "*";
-    private String[] path;
+    private static final Pattern INDEX_SEGMENT_PATTERN = Pattern.compile("\\.\\d+\\.");
+
+    private static final LoadingCache<String, FixPath> CACHE = CacheBuilder.newBuilder()
+        .maximumSize(Long.getLong("org.metafacture.metafix.pathCacheSize", DEFAULT_CACHE_SIZE))
+        .build(CacheLoader.from(p -> new FixPath(p)));
+
+    private final String[] path;
+    private final Segment[] segments;
+    private final int offset;
 
     /*package-private*/ FixPath(final String path) {
         this(Value.split(path));
     }
 
     private FixPath(final String[] path) {
+        this(path, Segment.classify(path), 0);
+    }
+
+    private FixPath(final String[] path, final Segment[] segments, final int offset) {
         this.path = path;
+        this.segments = segments;
+        this.offset = offset;
+    }
+
+    /**
+     * Returns the (possibly shared) parsed representation of the given path.
+     *
+     * @param path the field path
+     * @return the parsed path
+     */
+    /*package-private*/ static FixPath of(final String path) {
+        return CACHE.getUnchecked(path);
+    }
+
+    /*package-private*/ void forEachSegment(final Consumer<String> consumer) {
+        for (int i = offset; i < path.length; ++i) {
+            consumer.accept(path[i]);
+        }
+    }
+
+    private String head() {
+        return path[offset];
+    }
+
+    private Segment headSegment() {
+        return segments[offset];
+    }
+
+    private FixPath tail() {
+        return new FixPath(path, segments, offset + 1);
     }
 
     /*package-private*/ Value findIn(final Hash hash) {
@@ -49,16 +103,17 @@ import java.util.Map;
     }
 
     /*package-private*/ Value findIn(final Hash hash, final boolean enforceStringValue) {
-        final String currentSegment = path[0];
-        final FixPath remainingPath = new FixPath(tail(path));
-        if (currentSegment.equals(ASTERISK) && remainingPath.size() > 0) {
+        final String currentSegment = head();
+        final boolean isLast = size() == 1;
+
+        if (headSegment() == Segment.ASTERISK && !isLast) {
             // TODO: search in all elements of hash?
-            return remainingPath.findIn(hash, enforceStringValue);
+            return tail().findIn(hash, enforceStringValue);
         }
-        final Value value = hash.get(currentSegment, enforceStringValue && path.length == 1);
-        return value == null || path.length == 1 ? value : value.extractType((m, c) -> m
-                .ifArray(a -> c.accept(remainingPath.findIn(a)))
-                .ifHash(h -> c.accept(remainingPath.findIn(h, enforceStringValue)))
+        final Value value = hash.get(currentSegment, enforceStringValue && isLast);
+        return value == null || isLast ? value : value.extractType((m, c) -> m
+                .ifArray(a -> c.accept(tail().findIn(a)))
+                .ifHash(h -> c.accept(tail().findIn(h, enforceStringValue)))
                 .orElseThrow()
         );
     }
@@ -66,14 +121,15 @@ import java.util.Map;
     /*package-private*/ Value findIn(final Array array) {
         final Value result;
 
-        if (path.length == 0) {
+        if (size() == 0) {
             result = new Value(array);
         }
         else {
-            final String currentSegment = path[0];
-            if (currentSegment.equals(ASTERISK)) {
+            final Segment currentSegment = headSegment();
+            if (currentSegment == Segment.ASTERISK) {
+                final FixPath remainingPath = tail();
                 result = Value.newArray(resultArray -> array.forEach(v -> {
-                    final Value findInValue = findInValue(v, tail(path));
+                    final Value findInValue = remainingPath.findInValue(v);
                     if (findInValue != null) {
                         findInValue.matchType()
                             // flatten result arrays (use Value#path for structure)
@@ -82,10 +138,10 @@ import java.util.Map;
                     }
                 }));
             }
-            else if (isReference(currentSegment)) {
-                final Value referencedValue = getReferencedValue(array, currentSegment, null);
+            else if (currentSegment.isReference()) {
+                final Value referencedValue = getReferencedValue(array, head(), null);
                 if (referencedValue != null) {
-                    result = findInValue(referencedValue, tail(path));
+                    result = tail().findInValue(referencedValue);
                 }
                 else {
                     result = null;
@@ -93,29 +149,33 @@ import java.util.Map;
             }
             // TODO: WDCD? copy_field('your.name','author[].name'), where name is an array
             else {
-                result = Value.newArray(a -> array.forEach(v -> a.add(findInValue(v, path))));
+                result = Value.newArray(a -> array.forEach(v -> a.add(findInValue(v))));
             }
         }
 
         return result;
     }
 
-    private Value findInValue(final Value value, final String[] p) {
+    private Value findInValue(final Value value) {
         // TODO: move impl into enum elements, here call only value.find
-        return p.length == 0 ? value : value == null ? null : value.extractType((m, c) -> m
-                .ifArray(a -> c.accept(new FixPath(p).findIn(a)))
-                .ifHash(h -> c.accept(new FixPath(p).findIn(h)))
+        return size() == 0 ? value : value == null ? null : value.extractType((m, c) -> m
+                .ifArray(a -> c.accept(findIn(a)))
+                .ifHash(h -> c.accept(findIn(h)))
                 .orElse(c)
         );
     }
 
     @Override
     public String toString() {
-        return String.join(".", path);
+        return String.join(".", remaining());
     }
 
     /*package-private*/ int size() {
-        return path.length;
+        return path.length - offset;
+    }
+
+    private String[] remaining() {
+        return offset == 0 ? path : Arrays.copyOfRange(path, offset, path.length);
     }
 
     // TODO: this is still very much work in progress, I think we should
@@ -141,19 +201,33 @@ import java.util.Map;
     }
 
     private boolean matches(final String thatPath) {
-        return thatPath != null && thatPath.replaceAll("\\.\\d+\\.", ".*.").equals(String.join(".", this.path));
+        return thatPath != null && INDEX_SEGMENT_PATTERN.matcher(thatPath).replaceAll(".*.").equals(toString());
     }
 
     private String[] replaceInPath(final String find, final int i) {
-        return Arrays.asList(path).stream().map(s -> s.equals(find) ? String.valueOf(i + 1) : s).toArray(String[]::new);
+        return Arrays.stream(remaining()).map(s -> s.equals(find) ? String.valueOf(i + 1) : s).toArray(String[]::new);
     }
 
     private boolean hasWildcard() {
-        return Arrays.asList(path).stream().filter(s -> s.contains("*") || s.contains("?") || s.contains("|") || s.matches(".*?\\[.+?\\].*?")).findAny().isPresent();
+        for (int i = offset; i < segments.length; ++i) {
+            if (segments[i].isWildcard()) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     private long countAsterisks() {
-        return Arrays.asList(path).stream().filter(s -> s.equals(ASTERISK)).count();
+        long count = 0;
+
+        for (int i = offset; i < segments.length; ++i) {
+            if (segments[i] == Segment.ASTERISK) {
+                ++count;
+            }
+        }
+
+        return count;
     }
 
     /*package-private*/ enum InsertMode {
@@ -214,13 +288,13 @@ import java.util.Map;
     }
 
     /*package-private*/ void removeNestedFrom(final Array array) {
-        if (path.length >= 1 && path[0].equals(ASTERISK)) {
+        if (size() >= 1 && headSegment() == Segment.ASTERISK) {
             array.removeAll();
         }
-        else if (path.length >= 1 && Value.isNumber(path[0])) {
-            final int index = Integer.parseInt(path[0]) - 1; // TODO: 0-based Catmandu vs. 1-based Metafacture
+        else if (size() >= 1 && headSegment() == Segment.INDEX) {
+            final int index = Integer.parseInt(head()) - 1; // TODO: 0-based Catmandu vs. 1-based Metafacture
             if (index >= 0 && index < array.size()) {
-                if (path.length == 1) {
+                if (size() == 1) {
                     array.remove(index);
                 }
                 else {
@@ -231,9 +305,9 @@ import java.util.Map;
     }
 
     /*package-private*/ void removeNestedFrom(final Hash hash) {
-        final String field = path[0];
+        final String field = head();
 
-        if (path.length == 1) {
+        if (size() == 1) {
             hash.remove(field);
         }
         else if (hash.containsField(field)) {
@@ -245,25 +319,28 @@ import java.util.Map;
         // TODO: impl and call just value.remove
         if (value != null) {
             value.matchType()
-                .ifArray(a -> new FixPath(tail(path)).removeNestedFrom(a))
-                .ifHash(h -> new FixPath(tail(path)).removeNestedFrom(h))
+                .ifArray(a -> tail().removeNestedFrom(a))
+                .ifHash(h -> tail().removeNestedFrom(h))
                 .orElseThrow();
         }
     }
 
     private Value insertInto(final Array array, final InsertMode mode, final Value newValue) {
         // basic idea: reuse findIn logic here? setIn(findIn(array), newValue)
-        final String field = path[0];
+        final String field = head();
 
-        if (path.length == 1) {
+        if (size() == 1) {
             mode.apply(array, field, newValue);
         }
         else {
-            if (ASTERISK.equals(field)) {
-                array.forEach(value -> insertInto(value, mode, newValue.copy(), field, tail(path)));
+            final Segment segment = headSegment();
+
+            if (segment == Segment.ASTERISK) {
+                final FixPath tail = tail();
+                array.forEach(value -> insertInto(value, mode, newValue.copy(), field, tail));
             }
-            else if (isReference(field)) {
-                insertInto(getReferencedValue(array, field, newValue.getPath()), mode, newValue, field, tail(path));
+            else if (segment.isReference()) {
+                insertInto(getReferencedValue(array, field, newValue.getPath()), mode, newValue, field, tail());
             }
         }
 
@@ -272,26 +349,25 @@ import java.util.Map;
 
     /*package-private*/ Value insertInto(final Hash hash, final InsertMode mode, final Value newValue) {
         // basic idea: reuse findIn logic here? setIn(findIn(hash), newValue)
-        final String field = path[0];
+        final String field = head();
 
-        if (path.length == 1) {
+        if (size() == 1) {
             mode.apply(hash, field, newValue);
         }
         else {
-            final String[] tail = tail(path);
-            insertInto(getContainerValue(hash, field, newValue.getPath(), tail[0]), mode, newValue, field, tail);
+            final FixPath tail = tail();
+            insertInto(getContainerValue(hash, field, newValue.getPath(), tail.head()), mode, newValue, field, tail);
         }
 
         return new Value(hash);
     }
 
-    private Value insertInto(final Value value, final InsertMode mode, final Value newValue, final String field, final String[] tail) {
+    private Value insertInto(final Value value, final InsertMode mode, final Value newValue, final String field, final FixPath tail) {
         if (value != null) {
-            final FixPath fixPath = new FixPath(tail);
             newValue.withPathSet(value.getPath());
             return value.extractType((m, c) -> m
-                    .ifArray(a -> c.accept(fixPath.insertInto(a, mode, newValue)))
-                    .ifHash(h -> c.accept(fixPath.insertInto(h, mode, newValue)))
+                    .ifArray(a -> c.accept(tail.insertInto(a, mode, newValue)))
+                    .ifHash(h -> c.accept(tail.insertInto(h, mode, newValue)))
                     .orElseThrow());
         }
         else {
@@ -316,10 +392,6 @@ import java.util.Map;
         return result;
     }
 
-    private String[] tail(final String[] fields) {
-        return Arrays.copyOfRange(fields, 1, fields.length);
-    }
-
     private enum ReservedField {
         $prepend, $append, $first, $last;
 
@@ -335,10 +407,6 @@ import java.util.Map;
         }
     }
 
-    private boolean isReference(final String field) {
-        return ReservedField.fromString(field) != null || Value.isNumber(field);
-    }
-
     // TODO replace switch, extract to method on array?
     private Value getReferencedValue(final Array array, final String field, final String p) {
         Value referencedValue = null;
@@ -373,4 +441,61 @@ import java.util.Map;
         return referencedValue;
     }
 
+    private enum Segment {
+        FIELD,
+        ASTERISK,
+        INDEX,
+        RESERVED,
+        WILDCARD;
+
+        static Segment[] classify(final String[] path) {
+            final Segment[] result = new Segment[path.length];
+
+            for (int i = 0; i < path.length; ++i) {
+                result[i] = classify(path[i]);
+            }
+
+            return result;
+        }
+
+        private static Segment classify(final String segment) {
+            final Segment result;
+
+            if (FixPath.ASTERISK.equals(segment)) {
+                result = ASTERISK;
+            }
+            else if (Value.isNumber(segment)) {
+                result = INDEX;
+            }
+            else if (ReservedField.fromString(segment) != null) {
+                result = RESERVED;
+            }
+            else if (isWildcard(segment)) {
+                result = WILDCARD;
+            }
+            else {
+                result = FIELD;
+            }
+
+            return result;
+        }
+
+        private static boolean isWildcard(final String segment) {
+            return segment.contains("*") || segment.contains("?") || segment.contains("|") || hasCharacterClass(segment);
+        }
+
+        private static boolean hasCharacterClass(final String segment) {
+            final int bracket = segment.indexOf('[');
+            return bracket >= 0 && segment.indexOf(']', bracket + 2) >= 0;
+        }
+
+        boolean isReference() {
+            return this == INDEX || this == RESERVED;
+        }
+
+        boolean isWildcard() {
+            return this == ASTERISK || this == WILDCARD;
+        }
+    }
+
 }
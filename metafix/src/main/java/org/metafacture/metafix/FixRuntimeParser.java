@@ -0,0 +1,637 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix;
+
+import org.metafacture.metafix.fix.Do;
+import org.metafacture.metafix.fix.ElsIf;
+import org.metafacture.metafix.fix.Else;
+import org.metafacture.metafix.fix.Expression;
+import org.metafacture.metafix.fix.Fix;
+import org.metafacture.metafix.fix.FixFactory;
+import org.metafacture.metafix.fix.If;
+import org.metafacture.metafix.fix.MethodCall;
+import org.metafacture.metafix.fix.Options;
+import org.metafacture.metafix.fix.Unless;
+
+import com.google.common.io.CharStreams;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Parses Fix definitions into the same model as the Xtext-based
+ * {@link FixStandaloneSetup#parseFix(String) parser}, without setting up
+ * Xtext/Xbase (Guice injector, ANTLR parser, linking, validation). Only
+ * syntax errors are reported. The Xtext grammar remains the reference for
+ * the IDE and for validation.
+ *
+ * {@link CompiledFix} uses this parser if the system property
+ * {@code org.metafacture.metafix.runtimeParser} is set to {@code true}.
+ */
+public final class FixRuntimeParser {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FixRuntimeParser.class);
+
+    private static final FixFactory FACTORY = FixFactory.eINSTANCE;
+
+    private static final String INLINE_SCHEME = "inline";
+
+    private static final AtomicLong INLINE_COUNT = new AtomicLong();
+
+    private static final String KEYWORD_DO = "do";
+    private static final String KEYWORD_ELSE = "else";
+    private static final String KEYWORD_ELSIF = "elsif";
+    private static final String KEYWORD_END = "end";
+    private static final String KEYWORD_IF = "if";
+    private static final String KEYWORD_UNLESS = "unless";
+
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+                KEYWORD_DO, KEYWORD_ELSE, KEYWORD_ELSIF, KEYWORD_END, KEYWORD_IF, KEYWORD_UNLESS));
+
+    private static final String PUNCTUATION = "(),.:";
+    private static final String WHITESPACE = " \t\r\n";
+
+    private static final String ESCAPES = "ntr\\";
+    private static final String UNESCAPED = "\n\t\r\\";
+
+    private final Lexer lexer;
+    private final String source;
+
+    private Token previous;
+    private Token token;
+
+    private FixRuntimeParser(final String source) {
+        this.source = source;
+
+        lexer = new Lexer(source, 0, source.length());
+        token = lexer.next();
+    }
+
+    /**
+     * Parses the given Fix file.
+     *
+     * @param path the path to the Fix file
+     * @return the parsed Fix
+     */
+    public static Fix parseFix(final String path) {
+        try {
+            return parse(new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8), fileUri(path), path);
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses the given Fix expressions.
+     *
+     * @param fixDef the Fix expressions
+     * @return the parsed Fix
+     */
+    public static Fix parseFix(final Reader fixDef) {
+        final URI uri = inlineUri();
+
+        try {
+            return parse(CharStreams.toString(fixDef), uri, uri.toString());
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Parses the given content of the given Fix file, without reading the file (again).
+    /*package-private*/ static Fix parseFix(final Reader fixDef, final String path) {
+        try {
+            return parse(CharStreams.toString(fixDef), fileUri(path), path);
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*package-private*/ static URI fileUri(final String path) {
+        final File file = new File(path);
+        String absolutePath;
+
+        try {
+            absolutePath = file.getCanonicalPath();
+        }
+        catch (final IOException e) {
+            absolutePath = file.getAbsolutePath();
+        }
+
+        return URI.createFileURI(absolutePath);
+    }
+
+    /*package-private*/ static URI inlineUri() {
+        return URI.createURI(INLINE_SCHEME + ":/metafix" + INLINE_COUNT.incrementAndGet() + Metafix.FIX_EXTENSION);
+    }
+
+    private static Fix parse(final String source, final URI uri, final String path) {
+        final Fix fix;
+
+        try {
+            fix = new FixRuntimeParser(source).parseFix();
+        }
+        catch (final SyntaxError e) {
+            LOG.warn("The Fix file '{}' has a syntax error: {} ({}:{})", path, e.getMessage(), e.line, e.column);
+
+            throw new FixParseException("Invalid " + FixRuntimeParser.class.getSimpleName() + " resource: " + path, e);
+        }
+
+        // The resource provides the URI for execution error messages.
+        new ResourceImpl(uri).getContents().add(fix);
+        return fix;
+    }
+
+    /**
+     * Returns the source location of the given Fix expression, if it was parsed
+     * by this parser.
+     *
+     * @param object the Fix expression (including {@code elsif} and {@code else} branches)
+     * @return the source location, or null if not available
+     */
+    /*package-private*/ static Location getLocation(final EObject object) {
+        return (Location) EcoreUtil.getExistingAdapter(object, Location.class);
+    }
+
+    private Fix parseFix() {
+        final Fix fix = FACTORY.createFix();
+        parseElements(fix.getElements());
+
+        if (token.kind != Kind.EOF) {
+            throw mismatchedInput("<EOF>");
+        }
+
+        return fix;
+    }
+
+    private void parseElements(final List<Expression> elements) {
+        while (token.kind != Kind.EOF && !is(Kind.KEYWORD, KEYWORD_END) && !is(Kind.KEYWORD, KEYWORD_ELSIF) && !is(Kind.KEYWORD, KEYWORD_ELSE)) {
+            elements.add(parseExpression());
+        }
+    }
+
+    private Expression parseExpression() {
+        final Token start = token;
+        final Expression expression;
+
+        if (accept(Kind.KEYWORD, KEYWORD_IF)) {
+            expression = parseIf();
+        }
+        else if (accept(Kind.KEYWORD, KEYWORD_UNLESS)) {
+            final Unless unless = FACTORY.createUnless();
+            parseCall(unless::setName, unless.getParams(), unless::setOptions);
+            parseElements(unless.getElements());
+            expect(Kind.KEYWORD, KEYWORD_END);
+            expression = unless;
+        }
+        else if (accept(Kind.KEYWORD, KEYWORD_DO)) {
+            final Do doExpression = FACTORY.createDo();
+            parseCall(doExpression::setName, doExpression.getParams(), doExpression::setOptions);
+            parseElements(doExpression.getElements());
+            expect(Kind.KEYWORD, KEYWORD_END);
+            expression = doExpression;
+        }
+        else {
+            final MethodCall methodCall = FACTORY.createMethodCall();
+            parseCall(methodCall::setName, methodCall.getParams(), methodCall::setOptions);
+            expression = methodCall;
+        }
+
+        return locate(expression, start);
+    }
+
+    private If parseIf() {
+        final If ifExpression = FACTORY.createIf();
+        parseCall(ifExpression::setName, ifExpression.getParams(), ifExpression::setOptions);
+        parseElements(ifExpression.getElements());
+
+        while (is(Kind.KEYWORD, KEYWORD_ELSIF)) {
+            final Token start = token;
+            next();
+
+            final ElsIf elseIfExpression = FACTORY.createElsIf();
+            parseCall(elseIfExpression::setName, elseIfExpression.getParams(), elseIfExpression::setOptions);
+            parseElements(elseIfExpression.getElements());
+
+            ifExpression.getElseIf().add(locate(elseIfExpression, start));
+        }
+
+        if (is(Kind.KEYWORD, KEYWORD_ELSE)) {
+            final Token start = token;
+            next();
+
+            final Else elseExpression = FACTORY.createElse();
+            parseElements(elseExpression.getElements());
+
+            ifExpression.setElse(locate(elseExpression, start));
+        }
+
+        expect(Kind.KEYWORD, KEYWORD_END);
+        return ifExpression;
+    }
+
+    // name '(' ( param ( ',' param )* ','? )? options? ')'
+    private void parseCall(final Consumer<String> name, final List<String> params, final Consumer<Options> options) {
+        name.accept(parseQualifiedName());
+        expect(Kind.PUNCTUATION, "(");
+
+        boolean separated = true;
+
+        while (!is(Kind.PUNCTUATION, ")")) {
+            final String value = parseValue();
+
+            if (is(Kind.PUNCTUATION, ":")) {
+                options.accept(parseOptions(value));
+                break;
+            }
+
+            if (!separated) {
+                throw syntaxError("missing ',' before " + previous, previous);
+            }
+
+            params.add(value);
+            separated = accept(Kind.PUNCTUATION, ",");
+        }
+
+        expect(Kind.PUNCTUATION, ")");
+    }
+
+    // key ':' value ( ',' key ':' value )*
+    private Options parseOptions(final String firstKey) {
+        final Options options = FACTORY.createOptions();
+        parseOption(options, firstKey);
+
+        while (accept(Kind.PUNCTUATION, ",")) {
+            parseOption(options, parseValue());
+        }
+
+        return options;
+    }
+
+    private void parseOption(final Options options, final String key) {
+        expect(Kind.PUNCTUATION, ":");
+
+        options.getKeys().add(key);
+        options.getValues().add(parseValue());
+    }
+
+    private String parseValue() {
+        final String value;
+
+        if (token.kind == Kind.STRING) {
+            value = token.value;
+            next();
+        }
+        else {
+            value = parseQualifiedName();
+        }
+
+        return value;
+    }
+
+    private String parseQualifiedName() {
+        final StringBuilder builder = new StringBuilder(parseIdentifier());
+
+        while (accept(Kind.PUNCTUATION, ".")) {
+            builder.append('.').append(parseIdentifier());
+        }
+
+        return builder.toString();
+    }
+
+    private String parseIdentifier() {
+        if (token.kind != Kind.IDENTIFIER) {
+            throw syntaxError("mismatched input " + token + " expecting identifier", token);
+        }
+
+        final String value = token.value;
+        next();
+
+        return value;
+    }
+
+    private boolean is(final Kind kind, final String value) {
+        return token.kind == kind && token.value.equals(value);
+    }
+
+    private boolean accept(final Kind kind, final String value) {
+        final boolean accepted = is(kind, value);
+
+        if (accepted) {
+            next();
+        }
+
+        return accepted;
+    }
+
+    private void expect(final Kind kind, final String value) {
+        if (!accept(kind, value)) {
+            throw mismatchedInput("'" + value + "'");
+        }
+    }
+
+    private void next() {
+        previous = token;
+        token = lexer.next();
+    }
+
+    private <T extends EObject> T locate(final T object, final Token start) {
+        object.eAdapters().add(new Location(source, start.start, previous.end, start.line));
+        return object;
+    }
+
+    private SyntaxError mismatchedInput(final String expected) {
+        return syntaxError("mismatched input " + token + " expecting " + expected, token);
+    }
+
+    private static SyntaxError syntaxError(final String message, final Token at) {
+        return new SyntaxError(message, at.line, at.column);
+    }
+
+    private enum Kind {
+        IDENTIFIER, KEYWORD, STRING, PUNCTUATION, EOF
+    }
+
+    /**
+     * The source location of a Fix expression.
+     */
+    /*package-private*/ static final class Location extends AdapterImpl {
+
+        private final String source;
+        private final int end;
+        private final int line;
+        private final int start;
+
+        /*package-private*/ Location(final String source, final int start, final int end, final int line) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+            this.line = line;
+        }
+
+        @Override
+        public boolean isAdapterForType(final Object type) {
+            return type == Location.class;
+        }
+
+        /*package-private*/ int getStart() {
+            return start;
+        }
+
+        /*package-private*/ int getEnd() {
+            return end;
+        }
+
+        /*package-private*/ int getLine() {
+            return line;
+        }
+
+        // Token text like NodeModelUtils.getTokenText(): comments dropped,
+        // whitespace between tokens collapsed into a single space.
+        /*package-private*/ String getText() {
+            final StringBuilder builder = new StringBuilder();
+            final Lexer lexer = new Lexer(source, start, end);
+
+            for (Token t = lexer.next(); t.kind != Kind.EOF; t = lexer.next()) {
+                if (t.hiddenBefore && builder.length() > 0) {
+                    builder.append(' ');
+                }
+
+                builder.append(source, t.start, t.end);
+            }
+
+            return builder.toString();
+        }
+
+    }
+
+    private static final class Lexer {
+
+        private final String source;
+        private final int end;
+
+        private boolean hiddenBefore;
+        private int line = 1;
+        private int lineStart;
+        private int pos;
+        private int tokenColumn;
+        private int tokenLine;
+        private int tokenStart;
+
+        private Lexer(final String source, final int start, final int end) {
+            this.source = source;
+            this.end = end;
+
+            pos = start;
+            lineStart = start;
+        }
+
+        private Token next() {
+            hiddenBefore = skipHidden();
+
+            tokenStart = pos;
+            tokenLine = line;
+            tokenColumn = pos - lineStart + 1;
+
+            final Token result;
+
+            if (pos >= end) {
+                result = new Token(this, Kind.EOF, "<EOF>");
+            }
+            else {
+                final char c = source.charAt(pos);
+
+                if (c == '"' || c == '\'') {
+                    result = new Token(this, Kind.STRING, readString(c));
+                }
+                else if (PUNCTUATION.indexOf(c) >= 0) {
+                    read();
+                    result = new Token(this, Kind.PUNCTUATION, String.valueOf(c));
+                }
+                else {
+                    result = readIdentifier();
+                }
+            }
+
+            return result;
+        }
+
+        private boolean skipHidden() {
+            final int start = pos;
+
+            while (pos < end) {
+                final char c = source.charAt(pos);
+
+                if (WHITESPACE.indexOf(c) >= 0) {
+                    read();
+                }
+                else if (c == '#') {
+                    skipThrough("\n", false);
+                }
+                else if (source.startsWith("/*", pos)) {
+                    skipThrough("*/", true);
+                }
+                else {
+                    break;
+                }
+            }
+
+            return pos > start;
+        }
+
+        private void skipThrough(final String terminator, final boolean required) {
+            final int index = source.indexOf(terminator, pos);
+
+            if (index < 0 && required) {
+                throw new SyntaxError("unterminated comment", line, pos - lineStart + 1);
+            }
+
+            final int target = index < 0 ? end : Math.min(index + terminator.length(), end);
+
+            while (pos < target) {
+                read();
+            }
+        }
+
+        private Token readIdentifier() {
+            final boolean escaped = source.charAt(pos) == '^';
+
+            if (escaped) {
+                read();
+            }
+
+            if (pos >= end || !Character.isJavaIdentifierStart(source.charAt(pos))) {
+                throw new SyntaxError("unexpected character '" + source.charAt(tokenStart) + "'", tokenLine, tokenColumn);
+            }
+
+            final int valueStart = pos;
+
+            while (pos < end && Character.isJavaIdentifierPart(source.charAt(pos))) {
+                read();
+            }
+
+            final String value = source.substring(valueStart, pos);
+            return new Token(this, !escaped && KEYWORDS.contains(value) ? Kind.KEYWORD : Kind.IDENTIFIER, value);
+        }
+
+        private String readString(final char quote) {
+            final StringBuilder builder = new StringBuilder();
+            read();
+
+            while (pos < end && source.charAt(pos) != quote) {
+                final char c = read();
+                builder.append(c == '\\' ? unescape() : c);
+            }
+
+            if (pos >= end) {
+                throw new SyntaxError("unterminated string", tokenLine, tokenColumn);
+            }
+
+            read();
+            return builder.toString();
+        }
+
+        private char unescape() {
+            final int index = pos < end ? ESCAPES.indexOf(source.charAt(pos)) : -1;
+
+            if (index < 0) {
+                throw new SyntaxError("invalid escape sequence", line, pos - lineStart + 1);
+            }
+
+            read();
+            return UNESCAPED.charAt(index);
+        }
+
+        private char read() {
+            final char c = source.charAt(pos);
+            ++pos;
+
+            if (c == '\n') {
+                ++line;
+                lineStart = pos;
+            }
+
+            return c;
+        }
+
+    }
+
+    private static final class Token {
+
+        private final Kind kind;
+        private final String value;
+        private final boolean hiddenBefore;
+        private final int column;
+        private final int end;
+        private final int line;
+        private final int start;
+
+        private Token(final Lexer lexer, final Kind kind, final String value) {
+            this.kind = kind;
+            this.value = value;
+
+            hiddenBefore = lexer.hiddenBefore;
+            column = lexer.tokenColumn;
+            end = lexer.pos;
+            line = lexer.tokenLine;
+            start = lexer.tokenStart;
+        }
+
+        @Override
+        public String toString() {
+            return kind == Kind.EOF ? value : "'" + value + "'";
+        }
+
+    }
+
+    private static final class SyntaxError extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int column;
+        private final int line;
+
+        private SyntaxError(final String message, final int line, final int column) {
+            super(message);
+
+            this.line = line;
+            this.column = column;
+        }
+
+    }
+
+}
@@ -9,7 +9,6 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Reader;
-import java.io.UncheckedIOException;
 
 /**
  * Initialization support for running Xtext languages without Equinox extension registry.
@@ -32,16 +31,14 @@ public class FixStandaloneSetup extends FixStandaloneSetupGenerated {
     }
 
     public static Fix parseFix(final Reader fixDef) {
-        try {
-            return parseFix(absPathToTempFile(fixDef, ".fix"));
-        }
-        catch (final IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        return (Fix) XtextValidator.getValidatedResource(fixDef, "metafix", Metafix.FIX_EXTENSION, new FixStandaloneSetup()).getContents().get(0);
+    }
+
+    /*package-private*/ static Fix parseFix(final Reader fixDef, final String path) {
+        return (Fix) XtextValidator.getValidatedResource(fixDef, path, new FixStandaloneSetup()).getContents().get(0);
     }
 
     public static String absPathToTempFile(final Reader fixDef, final String suffix) throws IOException {
-        // TODO: avoid temp file creation
         final File file = File.createTempFile("metafix", suffix);
         file.deleteOnExit();
 
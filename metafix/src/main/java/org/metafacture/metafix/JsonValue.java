@@ -18,9 +18,10 @@ package org.metafacture.metafix;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.SerializableString;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
@@ -63,20 +64,49 @@ public interface JsonValue {
         }
 
         public Value parse(final String source) throws IOException {
-            return parse(MAPPER.readTree(source));
+            return parse(source, Integer.MAX_VALUE);
         }
 
-        private Value parse(final JsonNode node) {
+        /**
+         * Parses the given JSON source, failing as soon as it holds more than
+         * the given number of values, i.e. without building them all first.
+         *
+         * @param source the JSON source
+         * @param maxValues the maximum number of values
+         * @return the parsed value
+         * @throws IOException if the source is not valid JSON
+         * @throws FixExecutionException if the source holds too many values
+         */
+        public Value parse(final String source, final int maxValues) throws IOException {
+            try (JsonParser parser = MAPPER.createParser(source)) {
+                return parse(parser, parser.nextToken(), new int[]{maxValues}, maxValues);
+            }
+        }
+
+        private Value parse(final JsonParser parser, final JsonToken token, final int[] budget, final int maxValues) throws IOException {
+            if (--budget[0] < 0) {
+                throw new FixExecutionException("Maximum number of values exceeded: " + maxValues);
+            }
+
             final Value value;
 
-            if (node.isObject()) {
-                value = Value.newHash(h -> node.fields().forEachRemaining(e -> h.put(e.getKey(), parse(e.getValue()))));
+            if (token == JsonToken.START_OBJECT) {
+                value = Value.newHash();
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String field = parser.getCurrentName();
+                    value.asHash().put(field, parse(parser, parser.nextToken(), budget, maxValues));
+                }
             }
-            else if (node.isArray()) {
-                value = Value.newArray(a -> node.elements().forEachRemaining(v -> a.add(parse(v))));
+            else if (token == JsonToken.START_ARRAY) {
+                value = Value.newArray();
+
+                for (JsonToken next = parser.nextToken(); next != JsonToken.END_ARRAY; next = parser.nextToken()) {
+                    value.asArray().add(parse(parser, next, budget, maxValues));
+                }
             }
             else {
-                value = new Value(node.textValue());
+                value = new Value(token == JsonToken.VALUE_STRING ? parser.getText() : null);
             }
 
             return value;
@@ -26,8 +26,6 @@ import org.metafacture.framework.StreamReceiver;
 import org.metafacture.framework.annotations.Description;
 import org.metafacture.framework.annotations.In;
 import org.metafacture.framework.annotations.Out;
-import org.metafacture.framework.helpers.DefaultStreamReceiver;
-import org.metafacture.mangling.StreamFlattener;
 import org.metafacture.metafix.fix.Expression;
 import org.metafacture.metamorph.api.Maps;
 
@@ -37,7 +35,6 @@ import org.slf4j.LoggerFactory;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.Reader;
-import java.io.StringReader;
 import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -77,11 +74,14 @@ public class Metafix implements StreamPipe<StreamReceiver>, Maps {
     public static final Map<String, String> NO_VARS = Collections.emptyMap();
 
     public static final int MAX_ENTITY_COUNT = Integer.getInteger("org.metafacture.metafix.maxEntityCount", -1);
+    public static final int MAX_RECORD_SIZE = Integer.getInteger("org.metafacture.metafix.maxRecordSize", -1);
 
     private static final Logger LOG = LoggerFactory.getLogger(Metafix.class);
 
     private static final String ENTITIES_NOT_BALANCED = "Entity starts and ends are not balanced";
 
+    private static final boolean CHECK_RECYCLED_RECORDS = Boolean.parseBoolean(System.getProperty("org.metafacture.metafix.checkRecycledRecords"));
+
     private final Deque<Integer> entityCountStack = new LinkedList<>();
     private final List<Closeable> resources = new ArrayList<>();
     private final List<Expression> expressions = new ArrayList<>();
@@ -90,27 +90,45 @@ public class Metafix implements StreamPipe<StreamReceiver>, Maps {
     private final Map<String, RecordTransformer> macros = new HashMap<>();
     private final Map<String, String> pathCache = new HashMap<>();
     private final Map<String, String> vars = new HashMap<>();
+    private final CompiledFix compiledFix;
     private final RecordTransformer recordTransformer;
-    private final StreamFlattener flattener = new StreamFlattener();
+    private final SymbolTable symbolTable;
 
     private List<Value> entities = new ArrayList<>();
     private Record currentRecord = new Record();
     private StreamReceiver outputStreamReceiver;
+    private RecordSizePolicy recordSizePolicy = RecordSizePolicy.REJECT;
     private Strictness strictness = DEFAULT_STRICTNESS;
-    private String fixFile;
     private String recordIdentifier;
     private String entityMemberName = DEFAULT_ENTITY_MEMBER_NAME;
+    private boolean recycleRecords;
     private boolean repeatedFieldsToEntities;
     private boolean strictnessHandlesProcessExceptions;
     private int entityCount;
+    private int maxRecordSize = MAX_RECORD_SIZE;
+    private int skippedEntityCount;
 
     public Metafix() {
         this(NO_VARS);
     }
 
     public Metafix(final Map<String, String> newVars) {
+        this(newVars, CompiledFix.empty());
+    }
+
+    /*package-private*/ Metafix(final Map<String, String> newVars, final SymbolTable symbolTable) {
+        this(newVars, CompiledFix.empty(), symbolTable);
+    }
+
+    private Metafix(final Map<String, String> newVars, final CompiledFix emptyFix) {
+        this(newVars, emptyFix, emptyFix.getSymbolTable());
+    }
+
+    private Metafix(final Map<String, String> newVars, final CompiledFix emptyFix, final SymbolTable symbolTable) {
         init(newVars);
+        compiledFix = emptyFix;
         recordTransformer = null;
+        this.symbolTable = symbolTable;
     }
 
     public Metafix(final String fixDef) throws IOException {
@@ -118,17 +136,7 @@ public class Metafix implements StreamPipe<StreamReceiver>, Maps {
     }
 
     public Metafix(final String fixDef, final Map<String, String> vars) throws IOException {
-        init(vars);
-
-        if (isFixFile(fixDef)) {
-            fixFile = fixDef;
-            recordTransformer = getRecordTransformer(fixDef);
-        }
-        else {
-            try (Reader reader = new StringReader(fixDef)) {
-                recordTransformer = getRecordTransformer(reader);
-            }
-        }
+        this(CompiledFix.compile(fixDef), vars);
     }
 
     public Metafix(final Reader fixDef) {
@@ -136,23 +144,21 @@ public class Metafix implements StreamPipe<StreamReceiver>, Maps {
     }
 
     public Metafix(final Reader fixDef, final Map<String, String> vars) {
-        init(vars);
-        recordTransformer = getRecordTransformer(fixDef);
+        this(CompiledFix.compile(fixDef), vars);
     }
 
-    private void init(final Map<String, String> newVars) {
-        flattener.setReceiver(new DefaultStreamReceiver() {
-
-            @Override
-            public void literal(final String name, final String value) {
-                final String[] split = Value.split(name);
-                addValue(split[split.length - 1], new Value(value));
-                // TODO use full path here to insert only once?
-                // new FixPath(name).insertInto(currentRecord, InsertMode.APPEND, new Value(value));
-            }
+    public Metafix(final CompiledFix compiledFix) {
+        this(compiledFix, NO_VARS);
+    }
 
-        });
+    public Metafix(final CompiledFix compiledFix, final Map<String, String> vars) {
+        init(vars);
+        this.compiledFix = compiledFix;
+        recordTransformer = new RecordTransformer(this, compiledFix.getFix());
+        symbolTable = compiledFix.getSymbolTable();
+    }
 
+    private void init(final Map<String, String> newVars) {
         vars.putAll(newVars);
     }
 
@@ -175,8 +181,8 @@ public class Metafix implements StreamPipe<StreamReceiver>, Maps {
             final Path basePath;
 
             if (path.startsWith(".")) {
-                if (fixFile != null) {
-                    basePath = getPath(fixFile).getParent();
+                if (compiledFix.getFixFile() != null) {
+                    basePath = getPath(compiledFix.getFixFile()).getParent();
                 }
                 else {
                     throw new IllegalArgumentException("Cannot resolve relative path: " + path);
@@ -208,11 +214,11 @@ public class Metafix implements StreamPipe<StreamReceiver>, Maps {
     }
 
     public RecordTransformer getRecordTransformer(final String fixDef) {
-        return fixCache.computeIfAbsent(fixDef, k -> new RecordTransformer(this, FixStandaloneSetup.parseFix(k)));
+        return fixCache.computeIfAbsent(fixDef, k -> new RecordTransformer(this, compiledFix.getFix(k)));
     }
 
-    private RecordTransformer getRecordTransformer(final Reader fixDef) {
-        return new RecordTransformer(this, FixStandaloneSetup.parseFix(fixDef));
+    public CompiledFix getCompiledFix() {
+        return compiledFix;
     }
 
     public void putMacro(final String name, final RecordTransformer macro) {
@@ -235,30 +241,148 @@ public class Metafix implements StreamPipe<StreamReceiver>, Maps {
 
     @Override
     public void startRecord(final String identifier) {
-        currentRecord = new Record();
+        if (recycleRecords) {
+            currentRecord = currentRecord.recycle(CHECK_RECYCLED_RECORDS);
+            entities.clear();
+        }
+        else {
+            currentRecord = new Record();
+            entities = new ArrayList<>();
+        }
+
         currentRecord.putVirtualField(StandardEventNames.ID, new Value(identifier));
         LOG.debug("Start record: {}", identifier);
-        flattener.startRecord(identifier);
+        resetRecordState(identifier);
+    }
+
+    /**
+     * Discards the record currently being built, e.g. when the stream is reset
+     * in the middle of a record.
+     */
+    /*package-private*/ void resetRecord() {
+        currentRecord = new Record();
+        entities = new ArrayList<>();
+        resetRecordState(null);
+    }
+
+    private void resetRecordState(final String identifier) {
         entityCountStack.clear();
         entityCount = 0;
         entityCountStack.add(entityCount);
+        skippedEntityCount = 0;
         recordIdentifier = identifier;
-        entities = new ArrayList<>();
     }
 
     @Override
     public void endRecord() {
+        transform(finishRecord());
+        emitRecord(recordIdentifier, currentRecord);
+    }
+
+    /*package-private*/ Record finishRecord() {
         entityCountStack.removeLast();
         if (!entityCountStack.isEmpty()) {
             throw new IllegalStateException(ENTITIES_NOT_BALANCED);
         }
-        flattener.endRecord();
-        LOG.debug("End record, walking Fix: {}", currentRecord);
-        recordTransformer.transform(currentRecord);
-        if (!currentRecord.getReject()) {
-            outputStreamReceiver.startRecord(recordIdentifier);
+        return currentRecord;
+    }
+
+    /*package-private*/ void transform(final Record record) {
+        currentRecord = record;
+        LOG.debug("End record, walking Fix: {}", record);
+
+        if (handleRecordSize(record)) {
+            recordTransformer.transform(record);
+        }
+    }
+
+    private boolean handleRecordSize(final Record record) {
+        if (maxRecordSize >= 0 && record.getNodeCount() > maxRecordSize) {
+            final String message = recordSizeMessage(record.getNodeCount());
+
+            if (recordSizePolicy == RecordSizePolicy.TRUNCATE) {
+                LOG.warn("{}; record truncated", message);
+            }
+            else {
+                strictness.handle(new FixExecutionException(message), record);
+            }
+        }
+
+        return !record.getReject();
+    }
+
+    /**
+     * Accounts for a value about to replace another one in the record by a Fix
+     * function, enforcing the {@link #setMaxRecordSize(int) maximum record size}.
+     *
+     * @param record the record
+     * @param oldValue the replaced value, or null
+     * @param newValue the new value
+     * @return the new value
+     * @throws FixExecutionException if the value would exceed the maximum record size
+     */
+    /*package-private*/ Value checkRecordSize(final Record record, final Value oldValue, final Value newValue) {
+        if (maxRecordSize >= 0 && newValue != null) {
+            final int nodes = newValue.countNodes() - countNodes(oldValue);
+            final long size = (long) getRecordSize(record, nodes) + nodes;
+
+            if (size > maxRecordSize) {
+                throw new FixExecutionException(recordSizeMessage(size));
+            }
+
+            record.addNodes(nodes);
+        }
+
+        return newValue;
+    }
+
+    /**
+     * Limits the number of values a Fix function may replace the given value
+     * with, according to the {@link #setMaxRecordSize(int) maximum record size}.
+     *
+     * @param record the record
+     * @param oldValue the replaced value, or null
+     * @param maxNodes the maximum number of new values
+     * @return the maximum number of new values within the maximum record size
+     */
+    /*package-private*/ int getMaxNodes(final Record record, final Value oldValue, final int maxNodes) {
+        final int result;
+
+        if (maxRecordSize >= 0) {
+            final int oldNodes = countNodes(oldValue);
+            final long left = (long) maxRecordSize - getRecordSize(record, maxNodes - oldNodes) + oldNodes;
+
+            result = (int) Math.max(Math.min(left, maxNodes), 0L);
+        }
+        else {
+            result = maxNodes;
+        }
+
+        return result;
+    }
+
+    private int getRecordSize(final Record record, final int nodes) {
+        // The count only grows while transforming, so recount before exceeding the limit.
+        return (long) record.getNodeCount() + nodes > maxRecordSize ? record.recountNodes() : record.getNodeCount();
+    }
+
+    private int countNodes(final Value value) {
+        return value != null ? value.countNodes() : 0;
+    }
+
+    private String recordSizeMessage(final long size) {
+        return "Maximum record size exceeded: " + size + "/" + maxRecordSize;
+    }
+
+    private boolean addNode() {
+        return maxRecordSize < 0 || currentRecord.addNodes(1) <= maxRecordSize;
+    }
+
+    /*package-private*/ void emitRecord(final String identifier, final Record record) {
+        if (!record.getReject()) {
+            outputStreamReceiver.startRecord(identifier);
             LOG.debug("Sending results to {}", outputStreamReceiver);
-            currentRecord.forEach(this::emit);
+            record.forEach(this::emit);
             outputStreamReceiver.endRecord();
         }
     }
@@ -301,7 +425,7 @@ public class Metafix implements StreamPipe<StreamReceiver>, Maps {
         }
         else {
             final Value entity = entities.get(index);
-            value.withPathSet(entity.getPath());
+            value.withPathParent(entity);
             entity.matchType()
                 .ifArray(a -> a.add(value))
                 .ifHash(h -> h.add(name, value))
@@ -321,12 +445,16 @@ public class Metafix implements StreamPipe<StreamReceiver>, Maps {
             return;
         }
 
+        if (skippedEntityCount > 0 || !addNode()) {
+            ++skippedEntityCount;
+            return;
+        }
+
         final Value value = isArrayName(name) ? Value.newArray() : Value.newHash();
-        addValue(name, value);
+        addValue(symbolTable.intern(name), value);
         entities.add(value);
 
         entityCountStack.push(entityCount);
-        flattener.startEntity(name);
     }
 
     @Override
@@ -335,18 +463,22 @@ public class Metafix implements StreamPipe<StreamReceiver>, Maps {
             return;
         }
 
+        if (skippedEntityCount > 0) {
+            --skippedEntityCount;
+            return;
+        }
+
         entityCountStack.pop();
-        flattener.endEntity();
     }
 
     @Override
     public void literal(final String name, final String value) {
-        if (maxEntityCountExceeded()) {
+        if (maxEntityCountExceeded() || skippedEntityCount > 0 || !addNode()) {
             return;
         }
 
         LOG.debug("Putting '{}': '{}'", name, value);
-        flattener.literal(name, value);
+        addValue(symbolTable.intern(name), new Value(value));
     }
 
     @Override
@@ -356,6 +488,11 @@ public class Metafix implements StreamPipe<StreamReceiver>, Maps {
 
     @Override
     public void closeStream() {
+        closeResources();
+        outputStreamReceiver.closeStream();
+    }
+
+    /*package-private*/ void closeResources() {
         for (final Closeable closeable : resources) {
             try {
                 closeable.close();
@@ -364,8 +501,6 @@ public class Metafix implements StreamPipe<StreamReceiver>, Maps {
                 throw new UncheckedIOException(e);
             }
         }
-
-        outputStreamReceiver.closeStream();
     }
 
     /**
@@ -446,6 +581,53 @@ public class Metafix implements StreamPipe<StreamReceiver>, Maps {
         return repeatedFieldsToEntities;
     }
 
+    /**
+     * Flags whether the record containers should be cleared and reused for the
+     * next record instead of being allocated anew. Only safe if no one holds on
+     * to the {@link #getCurrentRecord() current record} after
+     * {@link #endRecord()}; set system property
+     * {@code org.metafacture.metafix.checkRecycledRecords} to {@code true} to
+     * detect such retention.
+     *
+     * @param recycleRecords true if records should be recycled, false otherwise
+     */
+    public void setRecycleRecords(final boolean recycleRecords) {
+        this.recycleRecords = recycleRecords;
+    }
+
+    public boolean getRecycleRecords() {
+        return recycleRecords;
+    }
+
+    /**
+     * Limits the number of values (literals, entities and values added by Fix
+     * functions such as {@code split_field} or {@code from_json}) per record.
+     * A record that exceeds the limit while it is built is handled according
+     * to the {@link #setRecordSizePolicy(RecordSizePolicy) record size policy};
+     * any further literals and entities are dropped either way. A Fix function
+     * that would exceed the limit fails, subject to the
+     * {@link #setStrictness(Strictness) strictness}. Defaults to system property
+     * {@code org.metafacture.metafix.maxRecordSize}; a negative value means no
+     * limit.
+     *
+     * @param maxRecordSize the maximum number of values per record
+     */
+    public void setMaxRecordSize(final int maxRecordSize) {
+        this.maxRecordSize = maxRecordSize;
+    }
+
+    public int getMaxRecordSize() {
+        return maxRecordSize;
+    }
+
+    public void setRecordSizePolicy(final RecordSizePolicy recordSizePolicy) {
+        this.recordSizePolicy = recordSizePolicy != null ? recordSizePolicy : RecordSizePolicy.REJECT;
+    }
+
+    public RecordSizePolicy getRecordSizePolicy() {
+        return recordSizePolicy;
+    }
+
     public void setEntityMemberName(final String entityMemberName) {
         this.entityMemberName = entityMemberName;
     }
@@ -458,6 +640,22 @@ public class Metafix implements StreamPipe<StreamReceiver>, Maps {
         return MAX_ENTITY_COUNT >= 0 && entityCount > MAX_ENTITY_COUNT;
     }
 
+    public enum RecordSizePolicy {
+
+        /**
+         * Handles records exceeding the maximum size according to the
+         * strictness, e.g. skips them with strictness {@link Strictness#RECORD}.
+         */
+        REJECT,
+
+        /**
+         * Processes records exceeding the maximum size without the dropped
+         * literals and entities, and logs a warning.
+         */
+        TRUNCATE
+
+    }
+
     public enum Strictness {
 
         /**
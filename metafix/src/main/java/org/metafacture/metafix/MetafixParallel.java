@@ -0,0 +1,366 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix;
+
+import org.metafacture.framework.FluxCommand;
+import org.metafacture.framework.MetafactureException;
+import org.metafacture.framework.StreamReceiver;
+import org.metafacture.framework.annotations.Description;
+import org.metafacture.framework.annotations.In;
+import org.metafacture.framework.annotations.Out;
+import org.metafacture.framework.helpers.DefaultStreamPipe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transforms a data stream like {@link Metafix}, but distributes complete
+ * records across a pool of worker threads. Each worker uses its own
+ * {@link Metafix} instance, created from a shared {@link CompiledFix}.
+ * Transformed records are emitted in input order.
+ *
+ * Note that per-instance state (variables set by the Fix, maps, macros,
+ * {@code once} blocks) is kept separately for each worker.
+ *
+ * For Fix scripts that mostly wait on I/O (e.g. remote lookups), records can
+ * be transformed on virtual threads instead (requires Java 21+; falls back to
+ * platform threads otherwise). Since blocked virtual threads are cheap, one
+ * worker is then created per record in flight, i.e. the {@link #setWindow(int)
+ * window} bounds the number of records transformed concurrently instead of the
+ * number of threads.
+ */
+@Description("Applies a fix transformation to the event stream in parallel, given as the path to a fix file or the fixes themselves. Preserves record order.")
+@In(StreamReceiver.class)
+@Out(StreamReceiver.class)
+@FluxCommand("fix-parallel")
+public class MetafixParallel extends DefaultStreamPipe<StreamReceiver> {
+
+    public static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+
+    private static final Logger LOG = LoggerFactory.getLogger(MetafixParallel.class);
+
+    private final Deque<PendingRecord> pending = new LinkedList<>();
+    private final List<Metafix> workers = new ArrayList<>();
+    private final Map<String, String> vars;
+    private final CompiledFix compiledFix;
+    private final Metafix builder;
+
+    private BlockingQueue<Metafix> idleWorkers;
+    private ExecutorService executor;
+    private Metafix.Strictness strictness = Metafix.DEFAULT_STRICTNESS;
+    private String recordIdentifier;
+    private boolean strictnessHandlesProcessExceptions;
+    private boolean virtualThreads;
+    private int threads = DEFAULT_THREADS;
+    private int window;
+
+    public MetafixParallel(final String fixDef) {
+        this(fixDef, Metafix.NO_VARS);
+    }
+
+    public MetafixParallel(final String fixDef, final Map<String, String> vars) {
+        this(CompiledFix.compile(fixDef), vars);
+    }
+
+    public MetafixParallel(final CompiledFix compiledFix, final Map<String, String> vars) {
+        this.compiledFix = compiledFix;
+        this.vars = vars;
+
+        builder = new Metafix(Metafix.NO_VARS, compiledFix.getSymbolTable());
+    }
+
+    /**
+     * Sets the number of worker threads. Defaults to the number of available
+     * processors. With virtual threads, this only determines the default
+     * {@link #setWindow(int) window}.
+     *
+     * @param threads the number of worker threads
+     */
+    public void setThreads(final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        }
+
+        this.threads = threads;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the maximum number of records in flight, i.e. received but not yet
+     * emitted. Defaults to twice the number of worker threads.
+     *
+     * @param window the maximum number of records in flight
+     */
+    public void setWindow(final int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Window size must be positive: " + window);
+        }
+
+        this.window = window;
+    }
+
+    public int getWindow() {
+        return window > 0 ? window : 2 * threads;
+    }
+
+    /**
+     * Flags whether to transform records on virtual threads. Requires Java 21+;
+     * falls back to platform threads otherwise. With virtual threads, the
+     * number of workers is taken from the {@link #setWindow(int) window}.
+     *
+     * @param virtualThreads true if virtual threads should be used
+     */
+    public void setVirtualThreads(final boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public boolean getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setStrictness(final Metafix.Strictness strictness) {
+        this.strictness = strictness;
+    }
+
+    public Metafix.Strictness getStrictness() {
+        return strictness;
+    }
+
+    public void setStrictnessHandlesProcessExceptions(final boolean strictnessHandlesProcessExceptions) {
+        this.strictnessHandlesProcessExceptions = strictnessHandlesProcessExceptions;
+    }
+
+    public boolean getStrictnessHandlesProcessExceptions() {
+        return strictnessHandlesProcessExceptions;
+    }
+
+    public void setRepeatedFieldsToEntities(final boolean repeatedFieldsToEntities) {
+        builder.setRepeatedFieldsToEntities(repeatedFieldsToEntities);
+    }
+
+    public boolean getRepeatedFieldsToEntities() {
+        return builder.getRepeatedFieldsToEntities();
+    }
+
+    public void setMaxRecordSize(final int maxRecordSize) {
+        builder.setMaxRecordSize(maxRecordSize);
+    }
+
+    public int getMaxRecordSize() {
+        return builder.getMaxRecordSize();
+    }
+
+    public void setRecordSizePolicy(final Metafix.RecordSizePolicy recordSizePolicy) {
+        builder.setRecordSizePolicy(recordSizePolicy);
+    }
+
+    public Metafix.RecordSizePolicy getRecordSizePolicy() {
+        return builder.getRecordSizePolicy();
+    }
+
+    public void setEntityMemberName(final String entityMemberName) {
+        builder.setEntityMemberName(entityMemberName);
+    }
+
+    public String getEntityMemberName() {
+        return builder.getEntityMemberName();
+    }
+
+    @Override
+    protected void onSetReceiver() {
+        builder.setReceiver(getReceiver());
+    }
+
+    @Override
+    public void startRecord(final String identifier) {
+        builder.startRecord(identifier);
+        recordIdentifier = identifier;
+    }
+
+    @Override
+    public void endRecord() {
+        final Record record = builder.finishRecord();
+
+        if (executor == null) {
+            start();
+        }
+
+        pending.add(new PendingRecord(recordIdentifier, executor.submit(() -> transform(record))));
+
+        while (pending.size() >= getWindow()) {
+            emitNext();
+        }
+    }
+
+    @Override
+    public void startEntity(final String name) {
+        builder.startEntity(name);
+    }
+
+    @Override
+    public void endEntity() {
+        builder.endEntity();
+    }
+
+    @Override
+    public void literal(final String name, final String value) {
+        builder.literal(name, value);
+    }
+
+    @Override
+    protected void onResetStream() {
+        try {
+            emitAll();
+        }
+        finally {
+            builder.resetRecord();
+            recordIdentifier = null;
+        }
+    }
+
+    @Override
+    protected void onCloseStream() {
+        try {
+            emitAll();
+        }
+        finally {
+            stop();
+        }
+    }
+
+    private void start() {
+        final ExecutorService virtualExecutor = virtualThreads ? newVirtualExecutor() : null;
+        final int workerCount = virtualExecutor != null ? getWindow() : threads;
+
+        idleWorkers = new ArrayBlockingQueue<>(workerCount);
+
+        for (int i = 0; i < workerCount; ++i) {
+            final Metafix worker = new Metafix(compiledFix, vars);
+            worker.setStrictness(strictness);
+            worker.setStrictnessHandlesProcessExceptions(strictnessHandlesProcessExceptions);
+            worker.setMaxRecordSize(builder.getMaxRecordSize());
+            worker.setRecordSizePolicy(builder.getRecordSizePolicy());
+
+            workers.add(worker);
+            idleWorkers.add(worker);
+        }
+
+        executor = virtualExecutor != null ? virtualExecutor : newPlatformExecutor();
+    }
+
+    private ExecutorService newVirtualExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (final ReflectiveOperationException e) {
+            LOG.warn("Virtual threads not available, falling back to platform threads: {}", e.toString());
+            return null;
+        }
+    }
+
+    private ExecutorService newPlatformExecutor() {
+        final AtomicInteger threadCount = new AtomicInteger();
+
+        return Executors.newFixedThreadPool(threads, r -> {
+            final Thread thread = new Thread(r, "metafix-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+
+        workers.forEach(Metafix::closeResources);
+        workers.clear();
+    }
+
+    private Record transform(final Record record) throws InterruptedException {
+        final Metafix worker = idleWorkers.take();
+
+        try {
+            worker.transform(record);
+            return record;
+        }
+        finally {
+            idleWorkers.add(worker);
+        }
+    }
+
+    private void emitAll() {
+        while (!pending.isEmpty()) {
+            emitNext();
+        }
+    }
+
+    private void emitNext() {
+        final PendingRecord next = pending.remove();
+        builder.emitRecord(next.identifier, next.await());
+    }
+
+    private static final class PendingRecord {
+
+        private final Future<Record> future;
+        private final String identifier;
+
+        private PendingRecord(final String identifier, final Future<Record> future) {
+            this.identifier = identifier;
+            this.future = future;
+        }
+
+        private Record await() {
+            try {
+                return future.get();
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MetafactureException(e);
+            }
+            catch (final ExecutionException e) {
+                final Throwable cause = e.getCause();
+
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                else {
+                    throw new MetafactureException(cause);
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.util.regex.Pattern;
+
+/**
+ * Shared, bounded cache of compiled regular expressions, so that regex-taking
+ * Fix methods and conditionals don't compile the same pattern for every value.
+ * The maximum size can be set via the
+ * {@code org.metafacture.metafix.regexCacheSize} system property.
+ */
+public final class PatternCache {
+
+    public static final long DEFAULT_CACHE_SIZE = 1000;
+
+    private static final LoadingCache<String, Pattern> CACHE = CacheBuilder.newBuilder()
+        .maximumSize(Long.getLong("org.metafacture.metafix.regexCacheSize", DEFAULT_CACHE_SIZE))
+        .recordStats()
+        .build(CacheLoader.from(r -> Pattern.compile(r)));
+
+    private PatternCache() {
+    }
+
+    /**
+     * Returns the compiled pattern for the given regular expression.
+     *
+     * @param regex the regular expression
+     * @return the compiled pattern
+     * @throws java.util.regex.PatternSyntaxException if the expression's syntax is invalid
+     */
+    public static Pattern get(final String regex) {
+        try {
+            return CACHE.getUnchecked(regex);
+        }
+        catch (final UncheckedExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /*package-private*/ static CacheStats stats() {
+        return CACHE.stats();
+    }
+
+}
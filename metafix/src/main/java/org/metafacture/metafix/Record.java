@@ -19,10 +19,13 @@ package org.metafacture.metafix;
 import org.metafacture.metafix.FixPath.InsertMode;
 import org.metafacture.metafix.Value.TypeMatcher;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+
 import java.util.Collection;
 import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
@@ -37,6 +40,8 @@ public class Record extends Value.Hash {
     private final Map<String, Value> virtualFields = new LinkedHashMap<>();
 
     private boolean reject;
+    private boolean recycled;
+    private int nodeCount;
 
     /**
      * Creates an empty instance of {@link Record}.
@@ -50,10 +55,13 @@ public class Record extends Value.Hash {
      * @return a new record pre-populated with all entries from this record
      */
     public Record shallowClone() {
+        checkRecycled();
+
         final Record clone = new Record();
 
         clone.setReject(reject);
-        forEach(clone::put);
+        clone.share(this);
+        clone.nodeCount = nodeCount;
         virtualFields.forEach(clone::putVirtualField);
 
         return clone;
@@ -65,6 +73,7 @@ public class Record extends Value.Hash {
      * @param reject true if this record should not be emitted, false otherwise
      */
     public void setReject(final boolean reject) {
+        checkRecycled();
         this.reject = reject;
     }
 
@@ -74,6 +83,7 @@ public class Record extends Value.Hash {
      * @return true if this record should not be emitted, false otherwise
      */
     public boolean getReject() {
+        checkRecycled();
         return reject;
     }
 
@@ -84,6 +94,7 @@ public class Record extends Value.Hash {
      * @return true if this record contains the <i>virtual</i> field, false otherwise
      */
     public boolean containsVirtualField(final String field) {
+        checkRecycled();
         return virtualFields.containsKey(field);
     }
 
@@ -99,17 +110,191 @@ public class Record extends Value.Hash {
      * @see #retainFields(Collection)
      */
     public void putVirtualField(final String field, final Value value) {
+        checkRecycled();
+
         if (!Value.isNull(value)) {
             virtualFields.put(field, value);
         }
     }
 
+    /**
+     * Adds a field/value pair to this record, provided it's not
+     * {@link Value#isNull(Value) null}.
+     *
+     * @param field the field name
+     * @param value the metadata value
+     */
+    @Override
+    public void put(final String field, final Value value) {
+        checkRecycled();
+        super.put(field, value);
+    }
+
+    /**
+     * Iterates over all field/value pairs in this record.
+     *
+     * @param consumer the action to be performed for each field/value pair
+     */
+    @Override
+    public void forEach(final BiConsumer<String, Value> consumer) {
+        checkRecycled();
+        super.forEach(consumer);
+    }
+
+    /**
+     * Clears this record so that it can be reused for the next record. In
+     * checking mode, this record is invalidated instead, so that any further
+     * access by code that retained it fails, and a new record is returned.
+     *
+     * @param check whether to detect access to this record after recycling
+     * @return the (empty) record to reuse
+     */
+    /*package-private*/ Record recycle(final boolean check) {
+        checkRecycled();
+
+        final Record result;
+
+        if (check) {
+            // Keep the content, so that code still holding on to this record fails instead of seeing an empty one.
+            recycled = true;
+            result = new Record();
+        }
+        else {
+            removeAll();
+            virtualFields.clear();
+            reject = false;
+            nodeCount = 0;
+
+            result = this;
+        }
+
+        return result;
+    }
+
+    /**
+     * Accounts for values added to this record, cf.
+     * {@link Metafix#setMaxRecordSize(int)}.
+     *
+     * @param nodes the number of values added, or negative for values replaced
+     *              by fewer ones
+     * @return the number of values added to this record so far
+     */
+    /*package-private*/ int addNodes(final int nodes) {
+        nodeCount = (int) Math.max(Math.min((long) nodeCount + nodes, Integer.MAX_VALUE), 0L);
+        return nodeCount;
+    }
+
+    /**
+     * Recounts the values in this record, releasing the budget of values that
+     * have been removed since they were accounted for.
+     *
+     * @return the number of values accounted for
+     */
+    /*package-private*/ int recountNodes() {
+        final int[] count = {0};
+        forEach((f, v) -> count[0] += v.countNodes());
+
+        // values added by Fix functions that aren't accounted for don't count
+        nodeCount = Math.min(nodeCount, count[0]);
+        return nodeCount;
+    }
+
+    /*package-private*/ int getNodeCount() {
+        return nodeCount;
+    }
+
+    private void checkRecycled() {
+        if (recycled) {
+            throw new IllegalStateException("Record used after it has been recycled");
+        }
+    }
+
     @Override
     public String toString() {
+        checkRecycled();
+
         // TODO: Improve string representation? Include reject status, virtual fields, etc.?
         return super.toString();
     }
 
+    @Override
+    public void toJson(final JsonGenerator jsonGenerator) {
+        checkRecycled();
+        super.toJson(jsonGenerator);
+    }
+
+    @Override
+    public boolean containsField(final String field) {
+        checkRecycled();
+        return super.containsField(field);
+    }
+
+    @Override
+    public boolean containsPath(final String fieldPath) {
+        checkRecycled();
+        return super.containsPath(fieldPath);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        checkRecycled();
+        return super.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        checkRecycled();
+        return super.size();
+    }
+
+    @Override
+    public Value getField(final String field) {
+        checkRecycled();
+        return super.getField(field);
+    }
+
+    @Override
+    public Value getList(final String field, final Consumer<Value.Array> consumer) {
+        checkRecycled();
+        return super.getList(field, consumer);
+    }
+
+    @Override
+    public void replace(final String field, final Value value) {
+        checkRecycled();
+        super.replace(field, value);
+    }
+
+    @Override
+    public void addAll(final String field, final List<String> values) {
+        checkRecycled();
+        super.addAll(field, values);
+    }
+
+    @Override
+    public void addAll(final Value.Hash hash) {
+        checkRecycled();
+        super.addAll(hash);
+    }
+
+    @Override
+    public void remove(final String field) {
+        checkRecycled();
+        super.remove(field);
+    }
+
+    @Override
+    public void removeField(final String field) {
+        checkRecycled();
+        super.removeField(field);
+    }
+
+    @Override
+    public void removeEmptyValues() {
+        checkRecycled();
+        super.removeEmptyValues();
+    }
+
     /**
      * Retrieves the field value from this record. Falls back to retrieving the
      * <i>virtual</i> field if the field name is not already
@@ -120,12 +305,14 @@ public class Record extends Value.Hash {
      */
     @Override
     public Value get(final String field) {
+        checkRecycled();
+
         final Value result;
         if (containsField(field)) {
             result = super.get(field);
         }
         else {
-            final FixPath fixPath = new FixPath(field);
+            final FixPath fixPath = FixPath.of(field);
             if (fixPath.size() > 1) {
                 result = fixPath.findIn(this);
             }
@@ -146,6 +333,8 @@ public class Record extends Value.Hash {
      */
     @Override
     public void add(final String field, final Value newValue) {
+        checkRecycled();
+
         if (containsField(field)) {
             super.add(field, newValue);
         }
@@ -155,7 +344,8 @@ public class Record extends Value.Hash {
     }
 
     public void addNested(final String field, final Value newValue) {
-        new FixPath(field).insertInto(this, InsertMode.APPEND, newValue);
+        checkRecycled();
+        FixPath.of(field).insertInto(this, InsertMode.APPEND, newValue);
     }
 
     /**
@@ -166,7 +356,9 @@ public class Record extends Value.Hash {
      * @param newValue the new metadata value
      */
     public void set(final String field, final Value newValue) {
-        final FixPath fixPath = new FixPath(field);
+        checkRecycled();
+
+        final FixPath fixPath = FixPath.of(field);
         fixPath.insertInto(this, InsertMode.REPLACE, newValue);
     }
 
@@ -179,6 +371,8 @@ public class Record extends Value.Hash {
      */
     @Override
     public void retainFields(final Collection<String> fields) {
+        checkRecycled();
+
         virtualFields.keySet().retainAll(fields);
 
         virtualFields.forEach((f, v) -> {
@@ -197,7 +391,9 @@ public class Record extends Value.Hash {
      * @param operator The operator
      */
     public void transform(final String field, final UnaryOperator<String> operator) {
-        final FixPath findPath = new FixPath(field);
+        checkRecycled();
+
+        final FixPath findPath = FixPath.of(field);
         final Value found = findPath.findIn(this, true);
         Value.asList(found, results -> {
             final Deque<FixPath> toDelete = new LinkedList<>();
@@ -223,7 +419,9 @@ public class Record extends Value.Hash {
      * @param consumer The consumer
      */
     public void transform(final String field, final BiConsumer<TypeMatcher, Consumer<Value>> consumer) {
-        final FixPath path = new FixPath(field);
+        checkRecycled();
+
+        final FixPath path = FixPath.of(field);
         final Value oldValue = path.findIn(this);
 
         if (oldValue != null) {
@@ -42,7 +42,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
@@ -62,7 +61,7 @@ public class RecordTransformer { // checkstyle-disable-line ClassFanOutComplexit
 
     private static final Logger LOG = LoggerFactory.getLogger(RecordTransformer.class);
 
-    private final List<Consumer<Record>> consumers = new LinkedList<>();
+    private final List<Step> steps = new ArrayList<>();
     private final List<Map<String, String>> vars = new ArrayList<>(Collections.nCopies(Vars.values().length, null));
     private final Metafix metafix;
     private final RecordTransformer parent;
@@ -121,13 +120,19 @@ public class RecordTransformer { // checkstyle-disable-line ClassFanOutComplexit
     }
 
     public void transform(final Record record) {
-        consumers.forEach(consumer -> {
-            final MetafactureException exception = tryRun(() -> consumer.accept(record));
+        // Plain indexed loop; avoids allocating an iterator and a capturing
+        // lambda per expression and record. (The steps are still invoked
+        // through a single, megamorphic call site.)
+        for (int i = 0; i < steps.size(); ++i) {
+            final Step step = steps.get(i);
+            currentMessageSupplier = step.messageSupplier;
+
+            final MetafactureException exception = tryRun(step.consumer, record);
 
             if (exception != null) {
                 metafix.getStrictness().handle(exception, record);
             }
-        });
+        }
     }
 
     private void processDo(final Do expression, final Params params, final Options options) {
@@ -147,12 +152,17 @@ public class RecordTransformer { // checkstyle-disable-line ClassFanOutComplexit
         final Supplier<String> elseMessageSupplier = () -> executionExceptionMessage(elseExpression, elseExpression.eResource());
 
         processFix(() -> executionExceptionMessage(ifExpression, ifExpression.eResource()), () -> {
-            final FixPredicate ifPredicate = getInstance(ifExpression.getName(), FixPredicate.class, FixConditional::valueOf);
+            final FixPredicate ifPredicate = prepare(getInstance(ifExpression.getName(), FixPredicate.class, FixConditional::valueOf), ifParams, ifOptions);
             final RecordTransformer ifTransformer = childTransformer(ifExpression.getElements());
 
-            final List<FixPredicate> elseIfPredicates = mapList(elseIfExpressions, e -> getInstance(e.getName(), FixPredicate.class, FixConditional::valueOf));
             final List<Params> elseIfParamsList = mapList(elseIfExpressions, e -> new Params(e.getParams(), this));
             final List<Options> elseIfOptionsList = mapList(elseIfExpressions, e -> new Options(e.getOptions(), this));
+            final List<FixPredicate> elseIfPredicates = new ArrayList<>(elseIfExpressions.size());
+
+            for (int i = 0; i < elseIfExpressions.size(); ++i) {
+                elseIfPredicates.add(prepare(getInstance(elseIfExpressions.get(i).getName(), FixPredicate.class, FixConditional::valueOf),
+                            elseIfParamsList.get(i), elseIfOptionsList.get(i)));
+            }
             final List<RecordTransformer> elseIfTransformers = mapList(elseIfExpressions, e -> childTransformer(e.getElements()));
 
             final RecordTransformer elseTransformer = elseExpression != null ? childTransformer(elseExpression.getElements()) : null;
@@ -189,7 +199,7 @@ public class RecordTransformer { // checkstyle-disable-line ClassFanOutComplexit
 
     private void processUnless(final Unless expression, final Params params, final Options options) {
         processFix(() -> executionExceptionMessage(expression, expression.eResource()), () -> {
-            final FixPredicate predicate = getInstance(expression.getName(), FixPredicate.class, FixConditional::valueOf);
+            final FixPredicate predicate = prepare(getInstance(expression.getName(), FixPredicate.class, FixConditional::valueOf), params, options);
             final RecordTransformer recordTransformer = childTransformer(expression.getElements());
 
             return record -> {
@@ -202,11 +212,35 @@ public class RecordTransformer { // checkstyle-disable-line ClassFanOutComplexit
 
     private void processFunction(final MethodCall expression, final Params params, final Options options) {
         processFix(() -> executionExceptionMessage(expression), () -> {
-            final FixFunction function = getInstance(expression.getName(), FixFunction.class, FixMethod::valueOf);
+            final FixFunction function = prepare(getInstance(expression.getName(), FixFunction.class, FixMethod::valueOf), params, options);
             return record -> function.apply(metafix, record, params.resolve(), options.resolve());
         });
     }
 
+    private FixFunction prepare(final FixFunction function, final Params params, final Options options) {
+        return params.isConstant() && options.isConstant() ?
+            prepare(() -> function.prepare(metafix, params.resolve(), options.resolve()), function) : function;
+    }
+
+    private FixPredicate prepare(final FixPredicate predicate, final Params params, final Options options) {
+        return params.isConstant() && options.isConstant() ?
+            prepare(() -> predicate.prepare(metafix, params.resolve(), options.resolve()), predicate) : predicate;
+    }
+
+    private <T> T prepare(final Supplier<T> supplier, final T unprepared) {
+        try {
+            return supplier.get();
+        }
+        catch (final FixProcessException e) {
+            throw e;
+        }
+        catch (final RuntimeException e) { // checkstyle-disable-line IllegalCatch
+            // defer to execution time, where the error is subject to strictness handling
+            LOG.warn("Failed to prepare Fix expression, deferring to execution: {}", currentMessageSupplier.get(), e);
+            return unprepared;
+        }
+    }
+
     private <T> T getInstance(final String name, final Class<T> baseType, final Function<String, ? extends T> enumFunction) {
         return name.contains(".") ? ReflectionUtil.loadClass(name, baseType).newInstance() : enumFunction.apply(name);
     }
@@ -218,23 +252,23 @@ public class RecordTransformer { // checkstyle-disable-line ClassFanOutComplexit
     private void processFix(final Supplier<String> messageSupplier, final Supplier<Consumer<Record>> consumerSupplier) {
         currentMessageSupplier = messageSupplier;
 
-        final MetafactureException exception = tryRun(() -> {
-            final Consumer<Record> consumer = consumerSupplier.get();
-
-            consumers.add(record -> {
-                currentMessageSupplier = messageSupplier;
-                consumer.accept(record);
-            });
-        });
-
-        if (exception != null) {
-            throw exception;
+        try {
+            steps.add(new Step(messageSupplier, consumerSupplier.get()));
+        }
+        catch (final FixProcessException | FixExecutionException e) {
+            throw e;
+        }
+        catch (final IllegalStateException | NumberFormatException e) {
+            throw new FixExecutionException(getCurrentExceptionMessage(), e);
+        }
+        catch (final RuntimeException e) { // checkstyle-disable-line IllegalCatch
+            throw new FixProcessException(getCurrentExceptionMessage(), e);
         }
     }
 
-    private MetafactureException tryRun(final Runnable runnable) { // checkstyle-disable-line ReturnCount
+    private MetafactureException tryRun(final Consumer<Record> consumer, final Record record) { // checkstyle-disable-line ReturnCount
         try {
-            runnable.run();
+            consumer.accept(record);
         }
         catch (final FixProcessException e) {
             throw e; // TODO: Add nesting information?
@@ -283,9 +317,30 @@ public class RecordTransformer { // checkstyle-disable-line ClassFanOutComplexit
 
     private String executionExceptionMessage(final EObject object, final Resource resource) {
         final INode node = NodeModelUtils.getNode(object);
+        final Object uri = resource != null ? resource.getURI() : null;
+        final String message;
+
+        if (node != null) {
+            message = executionExceptionMessage(uri, node.getStartLine(), NodeModelUtils.getTokenText(node));
+        }
+        else {
+            // parsed without Xtext, see FixRuntimeParser
+            final FixRuntimeParser.Location location = FixRuntimeParser.getLocation(object);
+
+            if (location != null) {
+                message = executionExceptionMessage(uri, location.getLine(), location.getText());
+            }
+            else {
+                // no source information, e.g. for expressions built in code
+                message = String.format("Error while executing Fix expression (at %s): %s", uri, object);
+            }
+        }
 
-        return String.format("Error while executing Fix expression (at %s, line %d): %s",
-                resource.getURI(), node.getStartLine(), NodeModelUtils.getTokenText(node));
+        return message;
+    }
+
+    private String executionExceptionMessage(final Object uri, final int line, final String text) {
+        return String.format("Error while executing Fix expression (at %s, line %d): %s", uri, line, text);
     }
 
     /*package-private*/ void setVars(final Map<String, String> staticVars) {
@@ -302,6 +357,18 @@ public class RecordTransformer { // checkstyle-disable-line ClassFanOutComplexit
         return mergedVars;
     }
 
+    private static final class Step {
+
+        private final Consumer<Record> consumer;
+        private final Supplier<String> messageSupplier;
+
+        private Step(final Supplier<String> messageSupplier, final Consumer<Record> consumer) {
+            this.messageSupplier = messageSupplier;
+            this.consumer = consumer;
+        }
+
+    }
+
     private abstract static class AbstractResolvable<T> {
 
         protected boolean isResolvable(final String value) {
@@ -314,6 +381,8 @@ public class RecordTransformer { // checkstyle-disable-line ClassFanOutComplexit
 
         protected abstract T resolve();
 
+        protected abstract boolean isConstant();
+
     }
 
     private static class Params extends AbstractResolvable<List<String>> {
@@ -346,6 +415,11 @@ public class RecordTransformer { // checkstyle-disable-line ClassFanOutComplexit
             }
         }
 
+        @Override
+        protected boolean isConstant() {
+            return !resolve;
+        }
+
     }
 
     private static class Options extends AbstractResolvable<Map<String, String>> {
@@ -395,6 +469,11 @@ public class RecordTransformer { // checkstyle-disable-line ClassFanOutComplexit
             }
         }
 
+        @Override
+        protected boolean isConstant() {
+            return !resolve;
+        }
+
     }
 
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * An array list that can {@link #share(SharedList) share} the elements of
+ * another list until either of them is modified, which makes copying it O(1).
+ *
+ * @param <E> the type of the elements
+ */
+/*package-private*/ final class SharedList<E> extends AbstractList<E> implements RandomAccess {
+
+    private List<E> list = new ArrayList<>();
+    private boolean shared;
+
+    /*package-private*/ SharedList() {
+    }
+
+    /**
+     * Makes this list a copy of the given list, sharing its elements until
+     * either of them is modified.
+     *
+     * @param other the list to copy
+     */
+    /*package-private*/ void share(final SharedList<E> other) {
+        list = other.list;
+
+        // Both sides copy before their next write, since neither knows whether the other one is still in use.
+        shared = true;
+        other.shared = true;
+
+        ++modCount;
+    }
+
+    @Override
+    public E get(final int index) {
+        return list.get(index);
+    }
+
+    @Override
+    public int size() {
+        return list.size();
+    }
+
+    @Override
+    public E set(final int index, final E element) {
+        unshare();
+        return list.set(index, element);
+    }
+
+    @Override
+    public void add(final int index, final E element) {
+        unshare();
+        list.add(index, element);
+        ++modCount;
+    }
+
+    @Override
+    public E remove(final int index) {
+        unshare();
+
+        final E result = list.remove(index);
+        ++modCount;
+
+        return result;
+    }
+
+    @Override
+    public boolean removeIf(final Predicate<? super E> filter) {
+        unshare();
+
+        final boolean result = list.removeIf(filter);
+
+        if (result) {
+            ++modCount;
+        }
+
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        if (shared) {
+            list = new ArrayList<>();
+            shared = false;
+        }
+        else {
+            list.clear();
+        }
+
+        ++modCount;
+    }
+
+    @Override
+    public void forEach(final Consumer<? super E> action) {
+        list.forEach(action);
+    }
+
+    private void unshare() {
+        if (shared) {
+            list = new ArrayList<>(list);
+            shared = false;
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix;
+
+import org.metafacture.metafix.api.FixFunction;
+import org.metafacture.metafix.api.FixPredicate;
+import org.metafacture.metafix.fix.ElsIf;
+import org.metafacture.metafix.fix.Expression;
+import org.metafacture.metafix.fix.Fix;
+import org.metafacture.metafix.fix.If;
+import org.metafacture.metafix.fix.MethodCall;
+import org.metafacture.metafix.fix.Unless;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Interns field names, so that all records share a single instance per name.
+ * The table is seeded with the segments of all literal field paths in a Fix,
+ * taken from their {@link FixPath#of(String) parsed paths}, so that looking up these
+ * fields in a record's {@link Value.Hash Hash} succeeds on identity and reuses
+ * the cached hash code. Other field names are added as they arrive, up to a
+ * maximum size (system property {@code org.metafacture.metafix.symbolTableSize},
+ * default: {@value #DEFAULT_MAX_SIZE}) that guards against data-dependent names.
+ */
+/*package-private*/ final class SymbolTable {
+
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    private static final int MAX_SIZE = Integer.getInteger("org.metafacture.metafix.symbolTableSize", DEFAULT_MAX_SIZE);
+
+    private final Map<String, String> symbols = new ConcurrentHashMap<>();
+
+    /*package-private*/ SymbolTable() {
+    }
+
+    /**
+     * Adds the path segments of all field path parameters in the given Fix,
+     * as declared by {@link FixFunction#getFieldParams()} and
+     * {@link FixPredicate#getFieldParams()}.
+     *
+     * @param fix the Fix, or null
+     */
+    /*package-private*/ void seed(final Fix fix) {
+        if (fix != null) {
+            fix.eAllContents().forEachRemaining(o -> {
+                if (o instanceof MethodCall) {
+                    seed(((MethodCall) o).getName(), ((MethodCall) o).getParams(), n -> FixMethod.valueOf(n).getFieldParams());
+                }
+                else if (o instanceof If || o instanceof Unless) {
+                    seed(((Expression) o).getName(), ((Expression) o).getParams(), n -> FixConditional.valueOf(n).getFieldParams());
+                }
+                else if (o instanceof ElsIf) {
+                    seed(((ElsIf) o).getName(), ((ElsIf) o).getParams(), n -> FixConditional.valueOf(n).getFieldParams());
+                }
+            });
+        }
+    }
+
+    private void seed(final String name, final List<String> params, final ToIntFunction<String> fieldParams) {
+        final int count = Math.min(getFieldParams(name, fieldParams), params.size());
+
+        for (int i = 0; i < count; ++i) {
+            final String param = params.get(i);
+
+            // variables and literal values (cf. paste) aren't field names
+            if (!param.contains("$[") && !param.startsWith("~")) {
+                FixPath.of(param).forEachSegment(s -> symbols.putIfAbsent(s, s));
+            }
+        }
+    }
+
+    // Custom (given by class name) and unknown functions aren't instantiated here; the latter fail when the Fix is run.
+    private int getFieldParams(final String name, final ToIntFunction<String> fieldParams) {
+        int result = 0;
+
+        if (name != null && !name.contains(".")) {
+            try {
+                result = fieldParams.applyAsInt(name);
+            }
+            catch (final IllegalArgumentException e) {
+                // unknown function
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the canonical instance of the given field name.
+     *
+     * @param name the field name
+     * @return the interned field name, or the given one if the table is full
+     */
+    /*package-private*/ String intern(final String name) {
+        final String symbol = symbols.get(name);
+        final String result;
+
+        if (symbol != null) {
+            result = symbol;
+        }
+        else if (symbols.size() < MAX_SIZE) {
+            final String previous = symbols.putIfAbsent(name, name);
+            result = previous != null ? previous : name;
+        }
+        else {
+            result = name;
+        }
+
+        return result;
+    }
+
+    /*package-private*/ int size() {
+        return symbols.size();
+    }
+
+}
@@ -16,20 +16,21 @@
 
 package org.metafacture.metafix;
 
-import org.metafacture.commons.tries.SimpleRegexTrie;
 import org.metafacture.commons.tries.WildcardTrie;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.ConcurrentModificationException;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -40,7 +41,6 @@ import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -54,60 +54,47 @@ public class Value implements JsonValue { // checkstyle-disable-line ClassDataAb
 
     private static final String FIELD_PATH_SEPARATOR = "\\.";
 
-    private final Array array;
-    private final Hash hash;
-    private final String string;
+    // Values are the most numerous objects in a record: three reference fields
+    // (the content and the path state) keep them at 24 bytes with compressed oops.
 
-    private final Type type;
+    // the Array, Hash or String (or null); it also determines the value's type
+    private final Object content;
 
-    private String path;
+    // the path, or the value whose path it continues (cf. #withPathParent(Value))
+    private Object path;
+    // a field name, an array index (Integer) or the Array to look up the index in, to be appended to the path
+    private Object pathSegment;
 
-    private Value(final Type type, final Array array, final Hash hash, final String string) {
-        final boolean hasValue = array != null || hash != null || string != null;
-
-        if (type == null) {
-            if (hasValue) {
-                throw new IllegalArgumentException("Value without type");
-            }
-        }
-        else {
-            if (!hasValue) {
-                throw new IllegalArgumentException("Type without value");
-            }
-        }
-
-        this.type = type;
-        this.array = array;
-        this.hash = hash;
-        this.string = string;
+    private Value(final Object content) {
+        this.content = content;
     }
 
     public Value(final Array array) {
-        this(array != null ? Type.Array : null, array, null, null);
+        this((Object) array);
     }
 
     public Value(final List<Value> array) {
         this(array != null ? new Array() : null);
 
         if (array != null) {
-            array.forEach(this.array::add);
+            array.forEach(((Array) content)::add);
         }
     }
 
     public Value(final Hash hash) {
-        this(hash != null ? Type.Hash : null, null, hash, null);
+        this((Object) hash);
     }
 
     public Value(final Map<String, Value> hash) {
         this(hash != null ? new Hash() : null);
 
         if (hash != null) {
-            hash.forEach(this.hash::put);
+            hash.forEach(((Hash) content)::put);
         }
     }
 
     public Value(final String string) {
-        this(string != null ? Type.String : null, null, null, string);
+        this((Object) string);
     }
 
     public Value(final int integer) {
@@ -155,7 +142,26 @@ public class Value implements JsonValue { // checkstyle-disable-line ClassDataAb
     }
 
     private boolean isType(final Type targetType) {
-        return type == targetType;
+        return getType() == targetType;
+    }
+
+    private Type getType() {
+        final Type type;
+
+        if (content instanceof String) {
+            type = Type.String;
+        }
+        else if (content instanceof Hash) {
+            type = Type.Hash;
+        }
+        else if (content instanceof Array) {
+            type = Type.Array;
+        }
+        else {
+            type = null;
+        }
+
+        return type;
     }
 
     public boolean isNull() {
@@ -167,7 +173,17 @@ public class Value implements JsonValue { // checkstyle-disable-line ClassDataAb
     }
 
     /*package-private*/ static boolean isNumber(final String s) {
-        return s.matches("\\d+");
+        boolean result = !s.isEmpty();
+
+        for (int i = 0; result && i < s.length(); ++i) {
+            result = isDigit(s.charAt(i));
+        }
+
+        return result;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
     }
 
     public Array asArray() {
@@ -226,18 +242,12 @@ public class Value implements JsonValue { // checkstyle-disable-line ClassDataAb
         }
 
         final Value other = (Value) object;
-        return Objects.equals(type, other.type) &&
-            Objects.equals(array, other.array) &&
-            Objects.equals(hash, other.hash) &&
-            Objects.equals(string, other.string);
+        return Objects.equals(content, other.content);
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hashCode(type) +
-            Objects.hashCode(array) +
-            Objects.hashCode(hash) +
-            Objects.hashCode(string);
+        return Objects.hashCode(content);
     }
 
     @Override
@@ -281,26 +291,97 @@ public class Value implements JsonValue { // checkstyle-disable-line ClassDataAb
     }
 
     public String getPath() {
-        return path;
+        final String result;
+
+        // Parent paths and array indexes are looked up whenever the path is read, so they follow
+        // changes to the containers; fixed segments are only joined (once) when the path is read.
+        if (path instanceof Value || pathSegment instanceof Array) {
+            result = joinPath(path instanceof Value ? ((Value) path).getPath() : (String) path);
+        }
+        else {
+            if (pathSegment != null) {
+                path = joinPath((String) path);
+                pathSegment = null;
+            }
+
+            result = (String) path;
+        }
+
+        return result;
+    }
+
+    private String joinPath(final String base) {
+        final Object segment = pathSegment instanceof Array ? ((Array) pathSegment).pathIndexOf(this) : pathSegment;
+        final String result;
+
+        if (segment == null) {
+            result = base;
+        }
+        else if (base == null || base.isEmpty()) {
+            result = segment.toString();
+        }
+        else {
+            result = base + "." + segment;
+        }
+
+        return result;
     }
 
     /*package-private*/ Value withPathSet(final String p) {
-        this.path = p;
+        path = p;
+        pathSegment = null;
+        return this;
+    }
+
+    /**
+     * Continues the path of the given value. The path isn't resolved until
+     * it's read, so it follows changes to the given value's path.
+     *
+     * @param parent the value containing this one
+     * @return this value
+     */
+    /*package-private*/ Value withPathParent(final Value parent) {
+        path = parent;
+        pathSegment = null;
         return this;
     }
 
     private Value withPathAppend(final int i) {
-        return withPathAppend(String.valueOf(i));
+        return appendPathSegment(Integer.valueOf(i));
     }
 
     private Value withPathAppend(final String field) {
-        return withPathSet(path == null || path.isEmpty() ? field : path + "." + field);
+        return appendPathSegment(field);
+    }
+
+    // The index is looked up in the array on demand, so inserting elements doesn't renumber the later ones.
+    private Value withPathAppend(final Array array) {
+        return appendPathSegment(array);
+    }
+
+    private Value appendPathSegment(final Object segment) {
+        if (pathSegment != null) {
+            path = getPath();
+        }
+
+        pathSegment = segment;
+        return this;
+    }
+
+    /*package-private*/ int countNodes() {
+        final int[] count = {1};
+
+        matchType()
+            .ifArray(a -> a.forEach(v -> count[0] += v.countNodes()))
+            .ifHash(h -> h.forEach((f, v) -> count[0] += v.countNodes()));
+
+        return count[0];
     }
 
     /*package-private*/ Value copy() {
         return extractType((m, c) -> m
-                .ifArray(oldArray -> c.accept(Value.newArray(newArray -> oldArray.forEach(v -> newArray.add(v)))))
-                .ifHash(oldHash -> c.accept(Value.newHash(newHash -> oldHash.forEach((k, v) -> newHash.put(k, v)))))
+                .ifArray(oldArray -> c.accept(Value.newArray(newArray -> newArray.share(oldArray))))
+                .ifHash(oldHash -> c.accept(Value.newHash(newHash -> newHash.share(oldHash))))
                 .ifString(s -> c.accept(new Value(s)))
                 .orElseThrow());
     }
@@ -328,19 +409,19 @@ public class Value implements JsonValue { // checkstyle-disable-line ClassDataAb
         }
 
         public TypeMatcher ifArray(final Consumer<Array> consumer) {
-            return match(Type.Array, consumer, value.array);
+            return match(Type.Array, consumer, Array.class);
         }
 
         public TypeMatcher ifHash(final Consumer<Hash> consumer) {
-            return match(Type.Hash, consumer, value.hash);
+            return match(Type.Hash, consumer, Hash.class);
         }
 
         public TypeMatcher ifString(final Consumer<String> consumer) {
-            return match(Type.String, consumer, value.string);
+            return match(Type.String, consumer, String.class);
         }
 
         public void orElse(final Consumer<Value> consumer) {
-            if (!expected.contains(value.type)) {
+            if (!expected.contains(value.getType())) {
                 consumer.accept(value);
             }
         }
@@ -348,14 +429,14 @@ public class Value implements JsonValue { // checkstyle-disable-line ClassDataAb
         public void orElseThrow() {
             orElse(v -> {
                 final String types = expected.stream().map(Type::name).collect(Collectors.joining(" or "));
-                throw new IllegalStateException("Expected " + types + ", got " + value.type);
+                throw new IllegalStateException("Expected " + types + ", got " + value.getType());
             });
         }
 
-        private <T> TypeMatcher match(final Type type, final Consumer<T> consumer, final T rawValue) {
+        private <T> TypeMatcher match(final Type type, final Consumer<T> consumer, final Class<T> rawType) {
             if (expected.add(type)) {
                 if (value.isType(type)) {
-                    consumer.accept(rawValue);
+                    consumer.accept(rawType.cast(value.content));
                 }
 
                 return this;
@@ -420,7 +501,7 @@ public class Value implements JsonValue { // checkstyle-disable-line ClassDataAb
      */
     public static class Array extends AbstractValueType {
 
-        private final List<Value> list = new ArrayList<>();
+        private final List<Value> list = new SharedList<>();
 
         /**
          * Creates an empty instance of {@link Array}.
@@ -428,6 +509,16 @@ public class Value implements JsonValue { // checkstyle-disable-line ClassDataAb
         private Array() {
         }
 
+        /**
+         * Makes this (empty) array a copy of the given array, sharing its
+         * values until either of them is modified.
+         *
+         * @param array the array to copy
+         */
+        /*package-private*/ void share(final Array array) {
+            ((SharedList<Value>) list).share((SharedList<Value>) array.list);
+        }
+
         public void add(final Value value) {
             add(value, true);
         }
@@ -442,16 +533,22 @@ public class Value implements JsonValue { // checkstyle-disable-line ClassDataAb
 
         /* package-private */ void add(final int index, final Value value, final boolean appendToPath) {
             if (!isNull(value)) {
-                list.add(index, appendToPath ? value.withPathAppend(index + 1) : value);
-                updateIndexesInPathsAfter(index);
+                list.add(index, appendToPath ? value.withPathAppend(this) : value);
             }
         }
 
-        private void updateIndexesInPathsAfter(final int start) {
-            for (int index = start + 1; index < list.size(); index = index + 1) {
-                final Value value = list.get(index);
-                value.withPathSet(value.getPath().replaceAll("\\d+$", String.valueOf(index + 1)));
+        // Returns the (1-based) index of the given value for its path, or null if it's no longer in this array.
+        private Integer pathIndexOf(final Value value) {
+            Integer result = null;
+
+            for (int i = 0; i < list.size(); ++i) {
+                if (list.get(i) == value) {
+                    result = i + 1;
+                    break;
+                }
             }
+
+            return result;
         }
 
         public boolean isEmpty() {
@@ -566,7 +663,7 @@ public class Value implements JsonValue { // checkstyle-disable-line ClassDataAb
         }
 
         /*package-private*/ void set(final int index, final Value value) {
-            list.set(index, value.withPathAppend(index + 1));
+            list.set(index, value.withPathAppend(this));
         }
 
         /*package-private*/ void removeIf(final Predicate<Value> predicate) {
@@ -584,20 +681,17 @@ public class Value implements JsonValue { // checkstyle-disable-line ClassDataAb
      */
     public static class Hash extends AbstractValueType {
 
+        public static final long DEFAULT_PATTERN_CACHE_SIZE = 1000;
+
         // NOTE: Keep in sync with `WildcardTrie`/`SimpleRegexTrie` implementation in metafacture-core.
         private static final Pattern ALTERNATION_PATTERN = Pattern.compile(WildcardTrie.OR_STRING, Pattern.LITERAL);
-        private static final ThreadLocal<Matcher> PATTERN_MATCHER = ThreadLocal.withInitial(() -> Pattern.compile("[*?]|\\[[^\\]]").matcher(""));
-
-        private static final ThreadLocal<Map<String, String>> PREFIX_CACHE = ThreadLocal.withInitial(HashMap::new);
 
-        private static final ThreadLocal<Map<String, Map<String, Boolean>>> TRIE_CACHE = ThreadLocal.withInitial(HashMap::new);
-        private static final ThreadLocal<SimpleRegexTrie<String>> TRIE = ThreadLocal.withInitial(SimpleRegexTrie::new);
+        private static final LoadingCache<String, FieldPattern> PATTERN_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(Long.getLong("org.metafacture.metafix.patternCacheSize", DEFAULT_PATTERN_CACHE_SIZE))
+            .recordStats()
+            .build(CacheLoader.from(p -> new FieldPattern(p)));
 
-        private final Map<String, Map<String, Boolean>> trieCache = TRIE_CACHE.get();
-        private final Map<String, String> prefixCache = PREFIX_CACHE.get();
-        private final Map<String, Value> map = new LinkedHashMap<>();
-        private final Matcher patternMatcher = PATTERN_MATCHER.get();
-        private final SimpleRegexTrie<String> trie = TRIE.get();
+        private final Map<String, Value> map = new CompactMap<>();
 
         /**
          * Creates an empty instance of {@link Hash}.
@@ -605,6 +699,16 @@ public class Value implements JsonValue { // checkstyle-disable-line ClassDataAb
         protected Hash() {
         }
 
+        /**
+         * Makes this (empty) hash a copy of the given hash, sharing its
+         * field/value pairs until either of them is modified.
+         *
+         * @param hash the hash to copy
+         */
+        /*package-private*/ void share(final Hash hash) {
+            ((CompactMap<Value>) map).share((CompactMap<Value>) hash.map);
+        }
+
         /**
          * Checks whether this hash contains the metadata field.
          *
@@ -612,7 +716,7 @@ public class Value implements JsonValue { // checkstyle-disable-line ClassDataAb
          * @return true if this hash contains the metadata field, false otherwise
          */
         public boolean containsField(final String field) {
-            return !findFields(field).isEmpty();
+            return isPlainField(field) ? map.containsKey(field) : !findFields(field).isEmpty();
         }
 
         public boolean containsPath(final String fieldPath) {
@@ -626,7 +730,7 @@ public class Value implements JsonValue { // checkstyle-disable-line ClassDataAb
                 final Value value;
 
                 try {
-                    value = new FixPath(fieldPath).findIn(this);
+                    value = FixPath.of(fieldPath).findIn(this);
                 }
                 catch (final IllegalStateException e) {
                     return false;
@@ -699,14 +803,33 @@ public class Value implements JsonValue { // checkstyle-disable-line ClassDataAb
         }
 
         /*package-private*/ Value get(final String field, final boolean enforceStringValue) { // TODO use Type.String etc.?
-            // TODO: special treatment (only) for exact matches?
-            final Set<String> set = findFields(field);
+            final Value result;
+
+            if (isPlainField(field)) {
+                // Exact match: a single lookup, without collecting field names.
+                final Value value = getField(field);
 
-            return set.isEmpty() ? null : set.size() == 1 ? getField(set.iterator().next(), enforceStringValue) :
-                newArray(a -> set.forEach(f -> getField(f, enforceStringValue).matchType()
-                            .ifArray(b -> b.forEach(t -> a.add(t, false)))
-                            .orElse(t -> a.add(t, false))
-                ));
+                if (value != null && enforceStringValue) {
+                    value.asString();
+                }
+
+                result = value;
+            }
+            else {
+                final Set<String> set = findFields(field);
+
+                result = set.isEmpty() ? null : set.size() == 1 ? getField(set.iterator().next(), enforceStringValue) :
+                    newArray(a -> set.forEach(f -> getField(f, enforceStringValue).matchType()
+                                .ifArray(b -> b.forEach(t -> a.add(t, false)))
+                                .orElse(t -> a.add(t, false))
+                    ));
+            }
+
+            return result;
+        }
+
+        private static boolean isPlainField(final String field) {
+            return !field.contains(WildcardTrie.OR_STRING) && !FieldPattern.isPattern(field);
         }
 
         public Value getField(final String field) {
@@ -743,7 +866,8 @@ public class Value implements JsonValue { // checkstyle-disable-line ClassDataAb
          * @param newValue the new metadata value
          */
         public void add(final String field, final Value newValue) {
-            final Value oldValue = new FixPath(field).findIn(this);
+            // Simple field names (the common case when building records) don't need path resolution
+            final Value oldValue = field.indexOf('.') < 0 ? get(field, false) : FixPath.of(field).findIn(this);
 
             if (oldValue == null) {
                 put(field, newValue);
@@ -765,7 +889,7 @@ public class Value implements JsonValue { // checkstyle-disable-line ClassDataAb
          * @param field the field name
          */
         public void remove(final String field) {
-            final FixPath fixPath = new FixPath(field);
+            final FixPath fixPath = FixPath.of(field);
 
             if (fixPath.size() > 1) {
                 fixPath.removeNestedFrom(this);
@@ -803,6 +927,13 @@ public class Value implements JsonValue { // checkstyle-disable-line ClassDataAb
             map.values().removeIf(REMOVE_EMPTY_VALUES);
         }
 
+        /**
+         * Removes all field/value pairs from this hash.
+         */
+        /*package-private*/ void removeAll() {
+            map.clear();
+        }
+
         /**
          * Iterates over all field/value pairs in this hash.
          *
@@ -880,42 +1011,98 @@ public class Value implements JsonValue { // checkstyle-disable-line ClassDataAb
         }
 
         private void findFields(final String pattern, final Set<String> fieldSet) {
-            if (!prefixCache.containsKey(pattern)) {
-                final Matcher matcher = patternMatcher.reset(pattern);
+            if (FieldPattern.isPattern(pattern)) {
+                final FieldPattern fieldPattern = PATTERN_CACHE.getUnchecked(pattern);
 
-                if (matcher.find()) {
-                    trie.put(pattern, pattern);
-                    trieCache.put(pattern, new HashMap<>());
-
-                    prefixCache.put(pattern, pattern.substring(0, matcher.start()));
-                }
-                else {
-                    prefixCache.put(pattern, null);
+                for (final String field : map.keySet()) {
+                    if (fieldPattern.matches(field)) {
+                        fieldSet.add(field);
+                    }
                 }
             }
+            else if (map.containsKey(pattern)) {
+                fieldSet.add(pattern);
+            }
+        }
 
-            final String prefix = prefixCache.get(pattern);
+        /*package-private*/ static CacheStats getPatternCacheStats() {
+            return PATTERN_CACHE.stats();
+        }
 
-            if (prefix != null) {
-                final Map<String, Boolean> fieldCache = trieCache.get(pattern);
+        /**
+         * A field name pattern, supporting {@code *} (any sequence of characters),
+         * {@code ?} (any single character) and {@code [...]} (any of the enclosed
+         * characters), compiled to a regular expression.
+         */
+        private static final class FieldPattern {
 
-                for (final String field : map.keySet()) {
-                    if (!fieldCache.containsKey(field)) {
-                        final boolean matches = field.startsWith(prefix) && trie.get(field).contains(pattern);
-                        fieldCache.put(field, matches);
+            private final Pattern pattern;
+            private final String prefix;
+
+            private FieldPattern(final String glob) {
+                final StringBuilder regex = new StringBuilder();
+                int prefixLength = -1;
+                int i = 0;
+
+                while (i < glob.length()) {
+                    final char c = glob.charAt(i);
+                    final int classEnd = c == '[' ? glob.indexOf(']', i + 2) : -1;
+
+                    if (prefixLength < 0 && (isWildcard(c) || classEnd >= 0)) {
+                        prefixLength = i;
+                    }
 
-                        if (matches) {
-                            fieldSet.add(field);
+                    if (classEnd >= 0) {
+                        regex.append('[');
+                        glob.substring(i + 1, classEnd).chars().forEach(k -> quote(regex, (char) k));
+                        regex.append(']');
+
+                        i = classEnd + 1;
+                    }
+                    else {
+                        if (isWildcard(c)) {
+                            regex.append(c == '*' ? ".*" : ".");
                         }
+                        else {
+                            quote(regex, c);
+                        }
+
+                        ++i;
                     }
-                    else if (fieldCache.get(field)) {
-                        fieldSet.add(field);
+                }
+
+                pattern = Pattern.compile(regex.toString(), Pattern.DOTALL);
+                prefix = prefixLength < 0 ? glob : glob.substring(0, prefixLength);
+            }
+
+            private static boolean isPattern(final String glob) {
+                for (int i = 0; i < glob.length(); ++i) {
+                    final char c = glob.charAt(i);
+
+                    if (isWildcard(c) || c == '[' && i + 1 < glob.length() && glob.charAt(i + 1) != ']') {
+                        return true;
                     }
                 }
+
+                return false;
             }
-            else if (map.containsKey(pattern)) {
-                fieldSet.add(pattern);
+
+            private static boolean isWildcard(final char c) {
+                return c == '*' || c == '?';
             }
+
+            private static void quote(final StringBuilder regex, final char c) {
+                if (!Character.isLetterOrDigit(c)) {
+                    regex.append('\\');
+                }
+
+                regex.append(c);
+            }
+
+            private boolean matches(final String field) {
+                return field.startsWith(prefix) && pattern.matcher(field).matches();
+            }
+
         }
 
     }
@@ -35,8 +35,38 @@ import java.util.stream.Stream;
 @FunctionalInterface
 public interface FixFunction {
 
+    /**
+     * Indicates that all parameters are field paths, cf. {@link #getFieldParams()}.
+     */
+    int ALL_PARAMS = Integer.MAX_VALUE;
+
     void apply(Metafix metafix, Record record, List<String> params, Map<String, String> options);
 
+    /**
+     * Prepares this function for repeated application with constant
+     * parameters and options, i.e., when neither contain any variables.
+     * Implementations may create expensive objects (e.g. compiled patterns)
+     * once here instead of on every call to {@link #apply}.
+     *
+     * @param metafix the Metafix instance the function is compiled for
+     * @param params the constant parameters
+     * @param options the constant options
+     * @return the function to apply to each record
+     */
+    default FixFunction prepare(final Metafix metafix, final List<String> params, final Map<String, String> options) {
+        return this;
+    }
+
+    /**
+     * Returns the number of leading parameters that are field paths, so that
+     * their field names can be interned when the Fix is compiled.
+     *
+     * @return the number of field path parameters, or {@link #ALL_PARAMS}
+     */
+    default int getFieldParams() {
+        return 0;
+    }
+
     default void withOption(final Map<String, String> options, final String key, final Consumer<String> consumer) {
         withOption(options, key, consumer, Map::get);
     }
@@ -17,6 +17,7 @@
 package org.metafacture.metafix.api;
 
 import org.metafacture.metafix.Metafix;
+import org.metafacture.metafix.PatternCache;
 import org.metafacture.metafix.Record;
 import org.metafacture.metafix.Value;
 
@@ -35,7 +36,7 @@ public interface FixPredicate {
 
     BiPredicate<String, String> CONTAINS = String::contains;
     BiPredicate<String, String> EQUALS = String::equals;
-    BiPredicate<String, String> MATCHES = String::matches;
+    BiPredicate<String, String> MATCHES = (s, regex) -> PatternCache.get(regex).matcher(s).matches();
 
     Predicate<String> IS_TRUE = s -> "true".equals(s) || "1".equals(s);
     Predicate<String> IS_FALSE = s -> "false".equals(s) || "0".equals(s);
@@ -59,6 +60,32 @@ public interface FixPredicate {
 
     boolean test(Metafix metafix, Record record, List<String> params, Map<String, String> options);
 
+    /**
+     * Prepares this predicate for repeated evaluation with constant
+     * parameters and options, i.e., when neither contain any variables.
+     *
+     * @param metafix the Metafix instance the predicate is compiled for
+     * @param params the constant parameters
+     * @param options the constant options
+     * @return the predicate to test each record against
+     *
+     * @see FixFunction#prepare(Metafix, List, Map)
+     */
+    default FixPredicate prepare(final Metafix metafix, final List<String> params, final Map<String, String> options) {
+        return this;
+    }
+
+    /**
+     * Returns the number of leading parameters that are field paths.
+     *
+     * @return the number of field path parameters
+     *
+     * @see FixFunction#getFieldParams()
+     */
+    default int getFieldParams() {
+        return 0;
+    }
+
     default boolean testConditional(final Record record, final List<String> params, final BiPredicate<Stream<Value>, Predicate<Value>> qualifier, final BiPredicate<String, String> conditional) {
         final String field = params.get(0);
         final String string = params.get(1);
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix.maps;
+
+import org.metafacture.metafix.FixExecutionException;
+import org.metafacture.metamorph.api.Maps;
+
+import com.google.common.collect.ForwardingMap;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Guards a lookup map with a Bloom filter of its keys (option
+ * {@value #BLOOM_FILTER_OPTION}), built when the map is loaded. Keys that are
+ * definitely not in the map are rejected without querying it, which speeds up
+ * lookups that mostly miss. The false-positive rate can be set with option
+ * {@value #FPP_OPTION} (default: {@value #DEFAULT_FPP}).
+ */
+public final class BloomFilterMap extends ForwardingMap<String, String> {
+
+    public static final String BLOOM_FILTER_OPTION = "bloom_filter";
+    public static final String FPP_OPTION = "bloom_filter_fpp";
+
+    public static final double DEFAULT_FPP = 0.01;
+
+    private final Consumer<Consumer<String>> keys;
+    private final Map<String, String> map;
+    private final Runnable loader;
+    private final double fpp;
+
+    private volatile BloomFilter<CharSequence> filter;
+
+    private BloomFilterMap(final Map<String, String> map, final Runnable loader, final Consumer<Consumer<String>> keys, final double fpp) {
+        this.map = map;
+        this.loader = loader;
+        this.keys = keys;
+        this.fpp = fpp;
+    }
+
+    /**
+     * Applies the Bloom filter and load options to a lookup map.
+     *
+     * @param map the lookup map
+     * @param loader loads the content of the map
+     * @param keys passes all keys of the (loaded) map to the given consumer
+     * @param options the map options
+     * @return the lookup map to use
+     *
+     * @see LoadingMap#of(Map, Runnable, String)
+     */
+    public static Map<String, String> of(final Map<String, String> map, final Runnable loader, final Consumer<Consumer<String>> keys, final Map<String, String> options) {
+        final String policy = options.get(LoadingMap.LOAD_OPTION);
+        final Map<String, String> result;
+
+        if (Boolean.parseBoolean(options.get(BLOOM_FILTER_OPTION))) {
+            final BloomFilterMap bloomFilterMap = new BloomFilterMap(map, loader, keys, fpp(options.get(FPP_OPTION)));
+            result = LoadingMap.of(bloomFilterMap, bloomFilterMap::load, policy);
+        }
+        else {
+            result = LoadingMap.of(map, loader, policy);
+        }
+
+        return result;
+    }
+
+    private static double fpp(final String value) {
+        final double result;
+
+        try {
+            result = value != null ? Double.parseDouble(value) : DEFAULT_FPP;
+        }
+        catch (final NumberFormatException e) {
+            throw invalidFpp();
+        }
+
+        if (!(result > 0.0 && result < 1.0)) {
+            throw invalidFpp();
+        }
+
+        return result;
+    }
+
+    private static FixExecutionException invalidFpp() {
+        return new FixExecutionException("Couldn't set parameter - use a number between 0 and 1 (exclusive) as value for '" + FPP_OPTION + "'");
+    }
+
+    /**
+     * Loads the map and builds the Bloom filter, unless already built.
+     */
+    public synchronized void load() {
+        if (filter == null) {
+            loader.run();
+
+            final long[] count = new long[1];
+            keys.accept(k -> ++count[0]);
+
+            final BloomFilter<CharSequence> bloomFilter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), Math.max(count[0], 1L), fpp);
+            keys.accept(bloomFilter::put);
+
+            filter = bloomFilter;
+        }
+    }
+
+    /**
+     * Checks whether the map might contain the given key.
+     *
+     * @param key the key
+     * @return false if the map definitely doesn't contain the key
+     */
+    public boolean mightContain(final Object key) {
+        if (filter == null) {
+            load();
+        }
+
+        return Maps.DEFAULT_MAP_KEY.equals(key) || key != null && filter.mightContain(key.toString());
+    }
+
+    @Override
+    public String get(final Object key) {
+        return mightContain(key) ? map.get(key) : null;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return mightContain(key) && map.containsKey(key);
+    }
+
+    @Override
+    protected Map<String, String> delegate() {
+        return map;
+    }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix.maps;
+
+import org.metafacture.metafix.FixExecutionException;
+import org.metafacture.metamorph.api.Maps;
+
+import com.google.common.collect.ForwardingMap;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Controls when the content of a lookup map is loaded (option {@value #LOAD_OPTION}):
+ * <ul>
+ * <li>{@code lazy}: on first access (default)</li>
+ * <li>{@code eager}: immediately</li>
+ * <li>{@code background}: immediately, on a separate thread; accessing the map
+ * blocks until loading has finished</li>
+ * </ul>
+ * Errors during background loading are thrown on first access.
+ *
+ * A map that is {@link #shared(Map) shared} between threads is loaded exactly
+ * once, regardless of its load policy.
+ */
+public final class LoadingMap extends ForwardingMap<String, String> {
+
+    public static final String LOAD_OPTION = "load";
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+        final Thread thread = new Thread(r, "metafix-map-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Future<?> loading;
+    private final Map<String, String> map;
+    private final Runnable loader;
+
+    private volatile boolean loaded;
+
+    private LoadingMap(final Map<String, String> map, final Runnable loader, final Future<?> loading) {
+        this.map = map;
+        this.loader = loader;
+        this.loading = loading;
+    }
+
+    /**
+     * Applies the given load policy to a lookup map.
+     *
+     * @param map the lookup map
+     * @param loader loads the content of the map
+     * @param policy the load policy ({@code lazy}, {@code eager} or
+     *               {@code background}), or null for the default
+     * @return the lookup map to use
+     */
+    public static Map<String, String> of(final Map<String, String> map, final Runnable loader, final String policy) {
+        final Map<String, String> result;
+
+        switch (policy != null ? policy.toLowerCase(Locale.ROOT) : "lazy") {
+            case "lazy":
+                result = map;
+                break;
+            case "eager":
+                loader.run();
+                result = map;
+                break;
+            case "background":
+                result = new LoadingMap(map, null, EXECUTOR.submit(loader));
+                break;
+            default:
+                throw new FixExecutionException("Couldn't set parameter - use 'lazy', 'eager' or 'background' as value for '" + LOAD_OPTION + "'");
+        }
+
+        return result;
+    }
+
+    /**
+     * Makes a lookup map safe to share between threads, by loading it on first
+     * access while holding a lock. Loading is triggered by looking up the
+     * {@link Maps#DEFAULT_MAP_KEY default key}. After that, the map is only
+     * read from.
+     *
+     * @param map the lookup map, as returned by {@link #of(Map, Runnable, String)}
+     * @return the lookup map to share
+     */
+    public static Map<String, String> shared(final Map<String, String> map) {
+        return map instanceof LoadingMap ? map : new LoadingMap(map, () -> map.get(Maps.DEFAULT_MAP_KEY), null);
+    }
+
+    /**
+     * Checks whether loading has finished.
+     *
+     * @return true if the map can be accessed without blocking
+     */
+    public boolean isLoaded() {
+        return loaded || loading != null && loading.isDone();
+    }
+
+    @Override
+    protected Map<String, String> delegate() {
+        if (!loaded) {
+            load();
+        }
+
+        return map;
+    }
+
+    private synchronized void load() {
+        if (!loaded) {
+            if (loading != null) {
+                await();
+            }
+            else {
+                loader.run();
+            }
+
+            loaded = true;
+        }
+    }
+
+    private void await() {
+        try {
+            loading.get();
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FixExecutionException("Interrupted while loading map", e);
+        }
+        catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            else {
+                throw new FixExecutionException("Error while loading map", cause);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,418 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix.maps;
+
+import org.metafacture.metafix.FixExecutionException;
+import org.metafacture.metamorph.api.helpers.AbstractReadOnlyMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Provides a read-only {@link java.util.Map} backed by a memory-mapped,
+ * immutable hash table of UTF-8 encoded keys and values.
+ * <p>
+ * The table lives in the page cache instead of the heap, so even maps with tens
+ * of millions of entries need next to no heap, and concurrent JVMs opening the
+ * same table share a single copy of it.
+ * <p>
+ * The table can be built from a delimited text file (see
+ * {@link #setSource(String, String)}), which is streamed instead of being
+ * loaded into memory. It's rebuilt whenever the source file is newer than the
+ * table. Later entries override earlier entries with the same key.
+ */
+public final class MmapMap extends AbstractReadOnlyMap<String, String> { // checkstyle-disable-line ClassFanOutComplexity
+
+    private static final Logger LOG = LoggerFactory.getLogger(MmapMap.class);
+
+    private static final int MAGIC = 0x4d46584d; // "MFXM"
+    private static final int VERSION = 1;
+
+    private static final int COUNT_OFFSET = Integer.BYTES * 2;
+    private static final int SLOTS_OFFSET = COUNT_OFFSET + Long.BYTES;
+    private static final int TABLE_OFFSET = SLOTS_OFFSET + Long.BYTES;
+    private static final int HEADER_LENGTH = TABLE_OFFSET + Long.BYTES;
+
+    // slot: 24 bits of the key's hash code, 40 bits of the entry's offset (0: empty)
+    private static final int OFFSET_BITS = 40;
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Path file;
+
+    private Path source;
+    private String separator;
+    private volatile Region region;
+    private long count;
+    private long mask;
+    private long tableOffset;
+
+    /**
+     * Creates an instance of {@link MmapMap}. The table is opened (and built, if
+     * necessary) on first access.
+     *
+     * @param file the hash table file
+     */
+    public MmapMap(final String file) {
+        this.file = Paths.get(file);
+    }
+
+    /**
+     * Sets a delimited text file to build the hash table from. The first column
+     * of each line is used as key, the second column as value; lines with less
+     * than two columns are ignored.
+     *
+     * @param sourceFile the source file (UTF-8 encoded)
+     * @param columnSeparator the column separator
+     */
+    public void setSource(final String sourceFile, final String columnSeparator) {
+        source = Paths.get(sourceFile);
+        separator = columnSeparator;
+    }
+
+    /**
+     * Opens the hash table, unless already opened. Builds the table first if
+     * it's missing or older than the source file.
+     */
+    public synchronized void load() {
+        if (region == null) {
+            try {
+                if (source != null && isOutdated()) {
+                    build();
+                }
+
+                final long size = Files.size(file);
+                final Region mapped = Region.map(file, FileChannel.MapMode.READ_ONLY, size);
+
+                if (size < HEADER_LENGTH || mapped.getInt(0) != MAGIC || mapped.getInt(Integer.BYTES) != VERSION) {
+                    throw new FixExecutionException("Invalid hash table file: " + file);
+                }
+
+                count = mapped.getLong(COUNT_OFFSET);
+                mask = mapped.getLong(SLOTS_OFFSET) - 1;
+                tableOffset = mapped.getLong(TABLE_OFFSET);
+                region = mapped;
+            }
+            catch (final IOException e) {
+                throw new FixExecutionException("Error while loading hash table: " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of entries in the hash table.
+     *
+     * @return the number of entries
+     */
+    public long getCount() {
+        if (region == null) {
+            load();
+        }
+
+        return count;
+    }
+
+    @Override
+    public String get(final Object key) {
+        if (region == null) {
+            load();
+        }
+
+        final byte[] bytes = key.toString().getBytes(StandardCharsets.UTF_8);
+        final long hash = hash(bytes);
+
+        String result = null;
+
+        long i = hash & mask;
+        long slot = region.getLong(tableOffset + i * Long.BYTES);
+
+        while (slot != 0 && result == null) {
+            final long offset = slot & OFFSET_MASK;
+
+            if (slot >>> OFFSET_BITS == hash >>> OFFSET_BITS && region.equals(offset, bytes)) {
+                result = region.getString(offset + Integer.BYTES + bytes.length);
+            }
+            else {
+                i = (i + 1) & mask;
+                slot = region.getLong(tableOffset + i * Long.BYTES);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Passes all keys of the hash table to the given consumer. Keys of
+     * overridden entries may be passed as well.
+     *
+     * @param consumer the consumer of keys
+     */
+    public void forEachKey(final Consumer<String> consumer) {
+        if (region == null) {
+            load();
+        }
+
+        long offset = HEADER_LENGTH;
+
+        while (offset < tableOffset) {
+            final byte[] key = region.getBytes(offset);
+            consumer.accept(new String(key, StandardCharsets.UTF_8));
+
+            final long valueOffset = offset + Integer.BYTES + key.length;
+            offset = valueOffset + Integer.BYTES + region.getInt(valueOffset);
+        }
+    }
+
+    private boolean isOutdated() throws IOException {
+        return !Files.isRegularFile(file) || Files.getLastModifiedTime(source).compareTo(Files.getLastModifiedTime(file)) > 0;
+    }
+
+    private void build() throws IOException {
+        final Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+
+        final Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+
+        try {
+            final Pattern pattern = Pattern.compile(separator, Pattern.LITERAL);
+
+            final long entries = write(temp, c -> {
+                try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+                    reader.lines().forEach(line -> {
+                        final String[] parts = pattern.split(line, -1);
+
+                        if (parts.length > 1) {
+                            c.accept(parts[0], parts[1]);
+                        }
+                    });
+                }
+                catch (final IOException e) {
+                    throw new FixExecutionException("Error while reading hash table source: " + source, e);
+                }
+            });
+
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOG.info("Built hash table {} with {} entries", file, entries);
+        }
+        finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Writes a hash table file.
+     *
+     * @param path the hash table file
+     * @param entries passes all entries to the given consumer
+     * @return the number of (distinct) entries
+     * @throws IOException if an I/O error occurs
+     */
+    public static long write(final Path path, final Consumer<BiConsumer<String, String>> entries) throws IOException {
+        final long[] total = new long[1];
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.write(new byte[HEADER_LENGTH]);
+
+            entries.accept((k, v) -> {
+                try {
+                    for (final String string : new String[]{k, v}) {
+                        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                        out.writeInt(bytes.length);
+                        out.write(bytes);
+                    }
+                }
+                catch (final IOException e) {
+                    throw new FixExecutionException("Error while writing hash table: " + path, e);
+                }
+
+                ++total[0];
+            });
+        }
+
+        final long dataEnd = Files.size(path);
+        final long slots = Long.highestOneBit(Math.max(total[0], 1) * 2 - 1) << 1; // load factor <= 0.5
+
+        if (dataEnd > OFFSET_MASK) {
+            throw new FixExecutionException("Hash table too large: " + path);
+        }
+
+        final Region table = Region.map(path, FileChannel.MapMode.READ_WRITE, dataEnd + slots * Long.BYTES);
+        final long distinct = table.index(dataEnd, slots);
+
+        table.putLong(0, (long) MAGIC << Integer.SIZE | VERSION);
+        table.putLong(COUNT_OFFSET, distinct);
+        table.putLong(SLOTS_OFFSET, slots);
+        table.putLong(TABLE_OFFSET, dataEnd);
+        table.force();
+
+        return distinct;
+    }
+
+    private static long hash(final byte[] bytes) {
+        long hash = FNV_OFFSET_BASIS;
+
+        for (final byte b : bytes) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME; // checkstyle-disable-line MagicNumber
+        }
+
+        // spread the low bits (used for the slot index)
+        return hash ^ hash >>> Integer.SIZE;
+    }
+
+    /**
+     * A file region mapped into memory in segments, since a single
+     * {@link MappedByteBuffer} is limited to 2 GB.
+     */
+    private static final class Region {
+
+        private static final int SEGMENT_BITS = 30;
+        private static final int SEGMENT_MASK = (1 << SEGMENT_BITS) - 1;
+
+        private final MappedByteBuffer[] segments;
+
+        private Region(final MappedByteBuffer[] segments) {
+            this.segments = segments;
+        }
+
+        private static Region map(final Path path, final FileChannel.MapMode mode, final long size) throws IOException {
+            final MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS)];
+
+            try (FileChannel channel = mode == FileChannel.MapMode.READ_ONLY ? FileChannel.open(path, StandardOpenOption.READ) :
+                    FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                for (int i = 0; i < segments.length; ++i) {
+                    final long position = (long) i << SEGMENT_BITS;
+                    segments[i] = channel.map(mode, position, Math.min(size - position, SEGMENT_MASK + 1));
+                }
+            }
+
+            return new Region(segments);
+        }
+
+        private byte get(final long position) {
+            return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & SEGMENT_MASK));
+        }
+
+        private void put(final long position, final byte value) {
+            segments[(int) (position >>> SEGMENT_BITS)].put((int) (position & SEGMENT_MASK), value);
+        }
+
+        private int getInt(final long position) {
+            return (int) getBytes(position, Integer.BYTES);
+        }
+
+        private long getLong(final long position) {
+            return getBytes(position, Long.BYTES);
+        }
+
+        private long getBytes(final long position, final int length) {
+            long result = 0;
+
+            for (int i = 0; i < length; ++i) {
+                result = result << Byte.SIZE | get(position + i) & 0xff; // checkstyle-disable-line MagicNumber
+            }
+
+            return result;
+        }
+
+        private void putLong(final long position, final long value) {
+            for (int i = 0; i < Long.BYTES; ++i) {
+                put(position + i, (byte) (value >>> (Long.BYTES - 1 - i) * Byte.SIZE));
+            }
+        }
+
+        private boolean equals(final long offset, final byte[] key) {
+            boolean result = getInt(offset) == key.length;
+
+            for (int i = 0; result && i < key.length; ++i) {
+                result = get(offset + Integer.BYTES + i) == key[i];
+            }
+
+            return result;
+        }
+
+        private byte[] getBytes(final long offset) {
+            final byte[] bytes = new byte[getInt(offset)];
+
+            for (int i = 0; i < bytes.length; ++i) {
+                bytes[i] = get(offset + Integer.BYTES + i);
+            }
+
+            return bytes;
+        }
+
+        private String getString(final long offset) {
+            return new String(getBytes(offset), StandardCharsets.UTF_8);
+        }
+
+        // inserts all entries between the header and the table, returns the number of distinct keys
+        private long index(final long dataEnd, final long slots) {
+            final long slotMask = slots - 1;
+            long distinct = 0;
+            long offset = HEADER_LENGTH;
+
+            while (offset < dataEnd) {
+                final byte[] key = getBytes(offset);
+                final long hash = hash(key);
+
+                long i = hash & slotMask;
+                long slot = getLong(dataEnd + i * Long.BYTES);
+
+                while (slot != 0 && !(slot >>> OFFSET_BITS == hash >>> OFFSET_BITS && equals(slot & OFFSET_MASK, key))) {
+                    i = (i + 1) & slotMask;
+                    slot = getLong(dataEnd + i * Long.BYTES);
+                }
+
+                if (slot == 0) {
+                    ++distinct;
+                }
+
+                putLong(dataEnd + i * Long.BYTES, hash >>> OFFSET_BITS << OFFSET_BITS | offset);
+
+                final long valueOffset = offset + Integer.BYTES + key.length;
+                offset = valueOffset + Integer.BYTES + getInt(valueOffset);
+            }
+
+            return distinct;
+        }
+
+        private void force() {
+            for (final MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+        }
+
+    }
+
+}
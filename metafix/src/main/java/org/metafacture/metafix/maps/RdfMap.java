@@ -20,6 +20,7 @@ import org.metafacture.metafix.FixExecutionException;
 import org.metafacture.metamorph.api.Maps;
 import org.metafacture.metamorph.api.helpers.AbstractReadOnlyMap;
 
+import org.apache.jena.rdf.model.Literal;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.RDFNode;
@@ -38,8 +39,13 @@ import java.net.URLConnection;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
 
 /**
@@ -68,13 +74,15 @@ public final class RdfMap extends AbstractReadOnlyMap<String, String> {
     private static final int MAX_HTTP_STATUS_CODE = 400;
 
     private final ArrayList<String> filenames = new ArrayList<>();
-    private final Map<String, String> map = new HashMap<>();
+    private final Map<String, String> literalsByLiteral = new HashMap<>();
+    private final Map<String, String> map = Collections.synchronizedMap(new HashMap<>());
+    private final Map<String, String> subjectsByLiteral = new HashMap<>();
 
     private Model model;
     private Select select = Select.DEFAULT;
     private String target;
     private String targetLanguage = "";
-    private boolean isUninitialized = true;
+    private volatile boolean isUninitialized = true;
 
     /**
      * Creates an instance of {@link RdfMap}.
@@ -95,9 +103,25 @@ public final class RdfMap extends AbstractReadOnlyMap<String, String> {
             target = nsPrefixAndProperty.length == 2 ? model.getNsPrefixURI(nsPrefixAndProperty[0]) + nsPrefixAndProperty[1] : nsPrefixAndProperty[0];
         }
 
+        buildIndexes();
+
         isUninitialized = false;
     }
 
+    /**
+     * Loads the RDF resources into the {@link Model}, unless already loaded.
+     * Otherwise, they're loaded on first access.
+     */
+    public void load() {
+        if (isUninitialized) {
+            synchronized (this) {
+                if (isUninitialized) {
+                    init();
+                }
+            }
+        }
+    }
+
     /**
      * Sets a comma separated list of files which provides the {@link Model}.
      *
@@ -126,6 +150,15 @@ public final class RdfMap extends AbstractReadOnlyMap<String, String> {
         setResource(isURI(file) ? file : operator.apply(file));
     }
 
+    /**
+     * Gets the files and URLs which provide the {@link Model}.
+     *
+     * @return the files and URLs
+     */
+    public List<String> getResources() {
+        return Collections.unmodifiableList(filenames);
+    }
+
     private void loadFile(final String file) {
         try {
             final String uri = isURI(file) ? read(file) : file;
@@ -163,73 +196,103 @@ public final class RdfMap extends AbstractReadOnlyMap<String, String> {
     @Override
     public String get(final Object key) {
         final String resourceName = key.toString();
-        String result = null;
+        final String result;
 
         if (map.containsKey(resourceName)) {
             result = map.get(resourceName);
         }
         else {
-            if (isUninitialized) {
-                init();
-            }
+            result = lookup(resourceName);
+            map.put(resourceName, result);
+        }
+
+        return result;
+    }
 
-            final Resource resource = ResourceFactory.createResource(resourceName);
-            final Property targetProperty = ResourceFactory.createProperty(target);
+    /**
+     * Passes all entries of the Map to the given consumer, i.e. every key (see
+     * {@link #forEachKey(Consumer)}) that {@link #get(Object)} resolves to a
+     * value other than the default, plus the default value itself (if any). The
+     * entries are not cached.
+     *
+     * @param consumer the consumer of keys and values
+     */
+    public void forEachEntry(final BiConsumer<String, String> consumer) {
+        final Set<String> keys = new LinkedHashSet<>();
+        forEachKey(keys::add);
 
-            try {
-                if (select.equals(Select.SUBJECT)) {
-                    result = getSubjectUsingPropertyAndLiteral(resourceName, targetProperty);
-                }
-                else {
-                    // 1. try to get LITERAL using SUBJECT and PROPERTY
-                    if (!targetLanguage.isEmpty()) {
-                        result = model.getRequiredProperty(resource, targetProperty, targetLanguage).getString();
-                    }
-                    else {
-                        result = model.getRequiredProperty(resource, targetProperty).getString();
-                    }
-                }
-            }
-            catch (final PropertyNotFoundException | NullPointerException | NoSuchElementException e) {
-                // 2. try to get SUBJECT using PROPERTY and LITERAL
-                if (select.equals(Select.DEFAULT)) {
-                    result = getSubjectUsingPropertyAndLiteral(resourceName, targetProperty);
-                }
-                // 3. try to get LITERAL of PREDICATE A using PREDICATE B
-                if (!select.equals(Select.SUBJECT)) {
-                    if (result == null) {
-                        result = getLiteralOfPredicateUsingOtherPredicate(resourceName, targetProperty);
-                    }
-                }
+        final String defaultValue = map.get(Maps.DEFAULT_MAP_KEY);
+
+        keys.forEach(k -> {
+            final String value = lookup(k);
+
+            if (value != null && !value.equals(defaultValue)) {
+                consumer.accept(k, value);
             }
+        });
 
-            map.put(resourceName, result);
+        if (defaultValue != null) {
+            consumer.accept(Maps.DEFAULT_MAP_KEY, defaultValue);
         }
-
-        return result;
     }
 
-    private String getLiteralOfPredicateUsingOtherPredicate(final String resourceName, final Property targetProperty) {
-        final ResIterator iter = model.listSubjectsWithProperty(targetProperty);
-        String result = map.get(Maps.DEFAULT_MAP_KEY);
+    /**
+     * Passes all keys that might resolve to a value to the given consumer, i.e.
+     * every Subject and every value of the target Property. Keys may be passed
+     * more than once.
+     *
+     * @param consumer the consumer of keys
+     */
+    public void forEachKey(final Consumer<String> consumer) {
+        load();
+
+        final StmtIterator iter = model.listStatements(null, ResourceFactory.createProperty(target), (RDFNode) null);
 
         while (iter.hasNext()) {
-            final Resource resource = iter.nextResource();
-            final StmtIterator iterProp = resource.listProperties(targetProperty);
+            final Statement statement = iter.nextStatement();
+            final RDFNode object = statement.getObject();
+
+            if (statement.getSubject().isURIResource()) {
+                consumer.accept(statement.getSubject().getURI());
+            }
 
-            while (iterProp.hasNext()) {
-                final Statement stmt = iterProp.nextStatement();
+            if (object.isLiteral()) {
+                consumer.accept(object.asLiteral().getString());
+            }
+        }
+    }
+
+    private String lookup(final String resourceName) {
+        String result = null;
 
-                if (stmt.getObject().asLiteral().getString().equals(resourceName)) {
-                    final StmtIterator subIterProp = resource.listProperties(targetProperty);
+        load();
 
-                    while (subIterProp.hasNext()) {
-                        final Statement subStmt = subIterProp.nextStatement();
+        final Resource resource = ResourceFactory.createResource(resourceName);
+        final Property targetProperty = ResourceFactory.createProperty(target);
 
-                        if (subStmt.getLanguage().equals(targetLanguage) && !subStmt.getString().equals(resourceName)) {
-                            result = subStmt.getString();
-                        }
-                    }
+        try {
+            if (select.equals(Select.SUBJECT)) {
+                result = getSubjectUsingPropertyAndLiteral(resourceName);
+            }
+            else {
+                // 1. try to get LITERAL using SUBJECT and PROPERTY
+                if (!targetLanguage.isEmpty()) {
+                    result = model.getRequiredProperty(resource, targetProperty, targetLanguage).getString();
+                }
+                else {
+                    result = model.getRequiredProperty(resource, targetProperty).getString();
+                }
+            }
+        }
+        catch (final PropertyNotFoundException | NullPointerException | NoSuchElementException e) {
+            // 2. try to get SUBJECT using PROPERTY and LITERAL
+            if (select.equals(Select.DEFAULT)) {
+                result = getSubjectUsingPropertyAndLiteral(resourceName);
+            }
+            // 3. try to get LITERAL of PREDICATE A using PREDICATE B
+            if (!select.equals(Select.SUBJECT)) {
+                if (result == null) {
+                    result = getLiteralOfPredicateUsingOtherPredicate(resourceName);
                 }
             }
         }
@@ -237,33 +300,56 @@ public final class RdfMap extends AbstractReadOnlyMap<String, String> {
         return result;
     }
 
-    private String getSubjectUsingPropertyAndLiteral(final String resourceName, final Property targetProperty) {
+    private String getLiteralOfPredicateUsingOtherPredicate(final String resourceName) {
+        return literalsByLiteral.getOrDefault(resourceName, map.get(Maps.DEFAULT_MAP_KEY));
+    }
+
+    private String getSubjectUsingPropertyAndLiteral(final String resourceName) {
+        return subjectsByLiteral.getOrDefault(targetLanguage.isEmpty() ? resourceName : resourceName + "@" + targetLanguage, map.get(Maps.DEFAULT_MAP_KEY));
+    }
+
+    /**
+     * Builds the indexes for query modes 2 and 3 (see {@link #get(Object)}) in
+     * a single pass over the subjects with the target Property. Later subjects
+     * override earlier ones, as the former full model scans did.
+     */
+    private void buildIndexes() {
+        final Property targetProperty = ResourceFactory.createProperty(target);
         final ResIterator iter = model.listSubjectsWithProperty(targetProperty);
-        String result = map.get(Maps.DEFAULT_MAP_KEY);
+        final List<Literal> literals = new ArrayList<>();
 
         while (iter.hasNext()) {
             final Resource resource = iter.nextResource();
             final StmtIterator stmtIterator = resource.listProperties(targetProperty);
 
+            literals.clear();
+
             while (stmtIterator.hasNext()) {
-                final RDFNode node = stmtIterator.next().getObject();
+                final RDFNode node = stmtIterator.nextStatement().getObject();
 
-                if (!targetLanguage.isEmpty()) {
-                    if (node.asLiteral().toString().equals(resourceName + "@" + targetLanguage)) {
-                        result = resource.getURI();
-                        break;
-                    }
+                if (node.isLiteral()) {
+                    literals.add(node.asLiteral());
                 }
-                else {
-                    if (node.asLiteral().getString().equals(resourceName)) {
-                        result = resource.getURI();
-                        break;
-                    }
+            }
+
+            for (final Literal literal : literals) {
+                if (!select.equals(Select.OBJECT)) {
+                    subjectsByLiteral.put(targetLanguage.isEmpty() ? literal.getString() : literal.toString(), resource.getURI());
+                }
+
+                if (!select.equals(Select.SUBJECT)) {
+                    indexOtherLiteral(literal.getString(), literals);
                 }
             }
         }
+    }
 
-        return result;
+    private void indexOtherLiteral(final String string, final List<Literal> literals) {
+        for (final Literal other : literals) {
+            if (other.getLanguage().equals(targetLanguage) && !other.getString().equals(string)) {
+                literalsByLiteral.put(string, other.getString());
+            }
+        }
     }
 
     /**
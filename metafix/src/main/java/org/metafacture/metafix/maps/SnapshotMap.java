@@ -0,0 +1,337 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix.maps;
+
+import org.metafacture.metafix.FixExecutionException;
+import org.metafacture.metamorph.api.helpers.AbstractReadOnlyMap;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.UnsignedBytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Provides a read-only {@link java.util.Map} backed by a memory-mapped snapshot
+ * file (option {@value #SNAPSHOT_OPTION}) of another lookup map's entries.
+ * <p>
+ * The snapshot holds the UTF-8 encoded entries sorted by key, so lookups are a
+ * binary search over the mapped file and the entries don't occupy any heap.
+ * It's rebuilt from the source map whenever the modification time or size of a
+ * source file changes and its content hash differs from the one recorded in the
+ * snapshot, or when the map configuration changes. Sources that aren't local
+ * files (e.g. URLs) are only compared by name.
+ * <p>
+ * Snapshots are limited to 2 GB.
+ */
+public final class SnapshotMap extends AbstractReadOnlyMap<String, String> { // checkstyle-disable-line ClassFanOutComplexity
+
+    public static final String SNAPSHOT_OPTION = "snapshot";
+
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotMap.class);
+
+    private static final int MAGIC = 0x4d465853; // "MFXS"
+    private static final int VERSION = 1;
+
+    private static final int DIGEST_LENGTH = 32;
+    private static final int METADATA_OFFSET = Integer.BYTES * 2;
+    private static final int CONTENT_OFFSET = METADATA_OFFSET + DIGEST_LENGTH;
+    private static final int COUNT_OFFSET = CONTENT_OFFSET + DIGEST_LENGTH;
+    private static final int INDEX_OFFSET = COUNT_OFFSET + Integer.BYTES;
+
+    private final Consumer<BiConsumer<String, String>> entries;
+    private final List<String> sources;
+    private final Path snapshot;
+    private final String config;
+
+    private volatile MappedByteBuffer buffer;
+    private int count;
+
+    /**
+     * Creates an instance of {@link SnapshotMap}. The snapshot is opened (and
+     * rebuilt, if necessary) on first access.
+     *
+     * @param snapshot the snapshot file
+     * @param sources the source files (or URLs) of the source map
+     * @param options the options of the source map
+     * @param entries passes all entries of the source map to the given consumer
+     */
+    public SnapshotMap(final String snapshot, final List<String> sources, final Map<String, String> options, final Consumer<BiConsumer<String, String>> entries) {
+        final Map<String, String> configOptions = new TreeMap<>(options);
+        configOptions.remove(LoadingMap.LOAD_OPTION);
+        configOptions.remove(SNAPSHOT_OPTION);
+
+        this.snapshot = Paths.get(snapshot);
+        this.sources = new ArrayList<>(sources);
+        this.config = configOptions.toString();
+        this.entries = entries;
+    }
+
+    /**
+     * Opens the snapshot, unless already opened. Rebuilds the snapshot if it's
+     * missing or outdated.
+     */
+    public synchronized void load() {
+        if (buffer == null) {
+            try {
+                final byte[] metadataDigest = metadataDigest();
+
+                if (!isCurrent(metadataDigest)) {
+                    build(metadataDigest);
+                }
+
+                try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+                    final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+                    count = mapped.getInt(COUNT_OFFSET);
+                    buffer = mapped;
+                }
+            }
+            catch (final IOException e) {
+                throw new FixExecutionException("Error while loading snapshot: " + snapshot, e);
+            }
+        }
+    }
+
+    @Override
+    public String get(final Object key) {
+        if (buffer == null) {
+            load();
+        }
+
+        final byte[] bytes = key.toString().getBytes(StandardCharsets.UTF_8);
+        String result = null;
+
+        int low = 0;
+        int high = count - 1;
+
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int offset = buffer.getInt(INDEX_OFFSET + mid * Integer.BYTES);
+            final int cmp = compare(offset, bytes);
+
+            if (cmp < 0) {
+                low = mid + 1;
+            }
+            else if (cmp > 0) {
+                high = mid - 1;
+            }
+            else {
+                result = string(offset + Integer.BYTES + bytes.length);
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Passes all keys of the snapshot to the given consumer, in sort order.
+     *
+     * @param consumer the consumer of keys
+     */
+    public void forEachKey(final Consumer<String> consumer) {
+        if (buffer == null) {
+            load();
+        }
+
+        for (int i = 0; i < count; ++i) {
+            consumer.accept(string(buffer.getInt(INDEX_OFFSET + i * Integer.BYTES)));
+        }
+    }
+
+    private int compare(final int offset, final byte[] key) {
+        final int length = buffer.getInt(offset);
+        final int n = Math.min(length, key.length);
+
+        int result = 0;
+
+        for (int i = 0; result == 0 && i < n; ++i) {
+            result = Byte.compareUnsigned(buffer.get(offset + Integer.BYTES + i), key[i]);
+        }
+
+        return result != 0 ? result : Integer.compare(length, key.length);
+    }
+
+    private String string(final int offset) {
+        final byte[] bytes = new byte[buffer.getInt(offset)];
+
+        for (int i = 0; i < bytes.length; ++i) {
+            bytes[i] = buffer.get(offset + Integer.BYTES + i);
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean isCurrent(final byte[] metadataDigest) throws IOException {
+        boolean result = false;
+
+        if (Files.isRegularFile(snapshot) && Files.size(snapshot) >= INDEX_OFFSET) {
+            final ByteBuffer header = ByteBuffer.allocate(COUNT_OFFSET);
+
+            try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+                channel.read(header, 0);
+            }
+
+            if (header.getInt(0) == MAGIC && header.getInt(Integer.BYTES) == VERSION) {
+                if (Arrays.equals(metadataDigest, digest(header, METADATA_OFFSET))) {
+                    result = true;
+                }
+                else if (Arrays.equals(contentDigest(), digest(header, CONTENT_OFFSET))) {
+                    // touched, but unchanged: skip the content hash next time
+                    updateMetadataDigest(metadataDigest);
+                    result = true;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private void updateMetadataDigest(final byte[] metadataDigest) {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(metadataDigest), METADATA_OFFSET);
+        }
+        catch (final IOException e) {
+            LOG.warn("Couldn't update snapshot: {}", snapshot, e);
+        }
+    }
+
+    private byte[] digest(final ByteBuffer header, final int offset) {
+        final byte[] digest = new byte[DIGEST_LENGTH];
+
+        for (int i = 0; i < DIGEST_LENGTH; ++i) {
+            digest[i] = header.get(offset + i);
+        }
+
+        return digest;
+    }
+
+    private byte[] metadataDigest() throws IOException {
+        final Hasher hasher = Hashing.sha256().newHasher().putString(config, StandardCharsets.UTF_8);
+
+        for (final String source : sources) {
+            final Path path = Paths.get(source);
+            hasher.putString(source, StandardCharsets.UTF_8);
+
+            if (Files.isRegularFile(path)) {
+                hasher.putLong(Files.size(path)).putLong(Files.getLastModifiedTime(path).toMillis());
+            }
+        }
+
+        return hasher.hash().asBytes();
+    }
+
+    private byte[] contentDigest() throws IOException {
+        final Hasher hasher = Hashing.sha256().newHasher().putString(config, StandardCharsets.UTF_8);
+        final byte[] chunk = new byte[1 << 16]; // checkstyle-disable-line MagicNumber
+
+        for (final String source : sources) {
+            final Path path = Paths.get(source);
+            hasher.putString(source, StandardCharsets.UTF_8);
+
+            if (Files.isRegularFile(path)) {
+                try (InputStream in = Files.newInputStream(path)) {
+                    for (int n = in.read(chunk); n != -1; n = in.read(chunk)) {
+                        hasher.putBytes(chunk, 0, n);
+                    }
+                }
+            }
+        }
+
+        return hasher.hash().asBytes();
+    }
+
+    private void build(final byte[] metadataDigest) throws IOException {
+        final List<byte[][]> list = new ArrayList<>();
+        entries.accept((k, v) -> list.add(new byte[][]{k.getBytes(StandardCharsets.UTF_8), v.getBytes(StandardCharsets.UTF_8)}));
+
+        final Comparator<byte[]> comparator = UnsignedBytes.lexicographicalComparator();
+        list.sort((a, b) -> comparator.compare(a[0], b[0]));
+
+        final int size = list.size();
+        final int[] offsets = new int[size];
+
+        long offset = INDEX_OFFSET + (long) size * Integer.BYTES;
+
+        for (int i = 0; i < size; ++i) {
+            final byte[][] entry = list.get(i);
+
+            if (offset + Integer.BYTES * 2 + entry[0].length + entry[1].length > Integer.MAX_VALUE) {
+                throw new FixExecutionException("Snapshot too large: " + snapshot);
+            }
+
+            offsets[i] = (int) offset;
+            offset += Integer.BYTES * 2 + entry[0].length + entry[1].length;
+        }
+
+        final Path directory = snapshot.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+
+        final Path temp = Files.createTempFile(directory, snapshot.getFileName().toString(), ".tmp");
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.write(metadataDigest);
+                out.write(contentDigest());
+                out.writeInt(size);
+
+                for (final int o : offsets) {
+                    out.writeInt(o);
+                }
+
+                for (final byte[][] entry : list) {
+                    for (final byte[] bytes : entry) {
+                        out.writeInt(bytes.length);
+                        out.write(bytes);
+                    }
+                }
+            }
+
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOG.info("Built snapshot {} with {} entries", snapshot, size);
+        }
+        finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+}
@@ -2,6 +2,8 @@ package org.metafacture.metafix.validation;
 
 import org.metafacture.metafix.FixParseException;
 
+import com.google.common.io.CharStreams;
+import com.google.inject.Injector;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.xtext.ISetup;
 import org.eclipse.xtext.XtextStandaloneSetup;
@@ -13,14 +15,32 @@ import org.eclipse.xtext.validation.Issue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 public class XtextValidator {
 
     private static final Logger LOG = LoggerFactory.getLogger(XtextValidator.class);
 
+    private static final String INLINE_SCHEME = "inline";
+
+    private static final AtomicLong INLINE_COUNT = new AtomicLong();
+
+    private static final Map<Class<? extends ISetup>, Injector> INJECTORS = new ConcurrentHashMap<>();
+    private static final Map<Injector, Queue<XtextResourceSet>> RESOURCE_SETS = new ConcurrentHashMap<>();
+
     private XtextValidator() {
         throw new IllegalAccessError("Utility class");
     }
@@ -33,7 +53,7 @@ public class XtextValidator {
 
         if (count > 0) {
             LOG.warn("The {} file '{}' has {} issue{}:",
-                    resourceType(setup), resource.getURI().toFileString(), count, count > 1 ? "s" : "");
+                    resourceType(setup), toString(resource.getURI()), count, count > 1 ? "s" : "");
 
             issues.forEach(i -> LOG.warn("- {}: {} ({}:{})",
                         i.getSeverity(), i.getMessage(), i.getLineNumber(), i.getColumn()));
@@ -45,10 +65,32 @@ public class XtextValidator {
     }
 
     public static boolean validate(final String path, final ISetup setup) {
-        return validate(getResource(path, setup), setup);
+        return withResourceSet(setup, r -> validate(getResource(path, r), setup));
     }
 
-    private static XtextResource getResource(final String path, final ISetup setup) {
+    // The injector is created only once per setup class, and resource sets are pooled.
+    // They're cleared after use; the resources loaded through them remain usable.
+    private static <T> T withResourceSet(final ISetup setup, final Function<XtextResourceSet, T> function) {
+        final Injector injector = INJECTORS.computeIfAbsent(setup.getClass(), k -> setup.createInjectorAndDoEMFRegistration());
+        final Queue<XtextResourceSet> pool = RESOURCE_SETS.computeIfAbsent(injector, k -> new ConcurrentLinkedQueue<>());
+
+        final XtextResourceSet pooledResourceSet = pool.poll();
+        final XtextResourceSet resourceSet = pooledResourceSet != null ? pooledResourceSet : injector.getInstance(XtextResourceSet.class);
+
+        try {
+            return function.apply(resourceSet);
+        }
+        finally {
+            resourceSet.getResources().clear();
+            pool.offer(resourceSet);
+        }
+    }
+
+    private static XtextResource getResource(final String path, final XtextResourceSet resourceSet) {
+        return (XtextResource) resourceSet.getResource(fileUri(path), true);
+    }
+
+    private static URI fileUri(final String path) {
         final File file = new File(path);
         String absolutePath;
 
@@ -59,13 +101,65 @@ public class XtextValidator {
             absolutePath = file.getAbsolutePath();
         }
 
-        return (XtextResource) setup.createInjectorAndDoEMFRegistration()
-            .getInstance(XtextResourceSet.class).getResource(URI.createFileURI(absolutePath), true);
+        return URI.createFileURI(absolutePath);
+    }
+
+    /**
+     * Parses the given content in memory, i.e., without writing it to a file
+     * first. The resource gets a synthetic URI ({@code inline:/<name><n><extension>}),
+     * which is used to look up the language by its file extension and shows up
+     * in log and error messages.
+     *
+     * @param reader the content
+     * @param name the base name for the synthetic URI
+     * @param extension the file extension of the language (including the dot)
+     * @param resourceSet the resource set to create the resource in
+     * @return the parsed resource
+     */
+    private static XtextResource getResource(final Reader reader, final String name, final String extension, final XtextResourceSet resourceSet) {
+        return getResource(reader, URI.createURI(INLINE_SCHEME + ":/" + name + INLINE_COUNT.incrementAndGet() + extension), resourceSet);
+    }
+
+    private static XtextResource getResource(final Reader reader, final URI uri, final XtextResourceSet resourceSet) {
+        final XtextResource resource = (XtextResource) resourceSet.createResource(uri);
+
+        try {
+            final String content = CharStreams.toString(reader);
+            resource.load(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                    Collections.singletonMap(XtextResource.OPTION_ENCODING, StandardCharsets.UTF_8.name()));
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return resource;
     }
 
     public static XtextResource getValidatedResource(final String path, final ISetup setup) {
-        final XtextResource resource = getResource(path, setup);
+        return withResourceSet(setup, r -> getValidatedResource(getResource(path, r), path, setup));
+    }
+
+    /**
+     * Parses the given content of the given file, i.e., without reading the
+     * file (again).
+     *
+     * @param reader the content of the file
+     * @param path the path to the file
+     * @param setup the language setup
+     * @return the validated resource
+     */
+    public static XtextResource getValidatedResource(final Reader reader, final String path, final ISetup setup) {
+        return withResourceSet(setup, r -> getValidatedResource(getResource(reader, fileUri(path), r), path, setup));
+    }
 
+    public static XtextResource getValidatedResource(final Reader reader, final String name, final String extension, final ISetup setup) {
+        return withResourceSet(setup, r -> {
+            final XtextResource resource = getResource(reader, name, extension, r);
+            return getValidatedResource(resource, toString(resource.getURI()), setup);
+        });
+    }
+
+    private static XtextResource getValidatedResource(final XtextResource resource, final String path, final ISetup setup) {
         if (validate(resource, setup)) {
             return resource;
         }
@@ -74,6 +168,10 @@ public class XtextValidator {
         }
     }
 
+    private static String toString(final URI uri) {
+        return uri.isFile() ? uri.toFileString() : uri.toString();
+    }
+
     private static String resourceType(final ISetup setup) {
         return setup.getClass().getSimpleName();
     }
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests the compact insertion-ordered map backing {@link Value.Hash}.
+ */
+public class CompactMapTest {
+
+    private static final int OPERATIONS = 10000;
+    private static final int KEYS = 12;
+
+    public CompactMapTest() {
+    }
+
+    @Test
+    public void shouldBehaveLikeLinkedHashMap() {
+        final Random random = new Random(42L);
+
+        final Map<String, Integer> expected = new LinkedHashMap<>();
+        final Map<String, Integer> actual = new CompactMap<>();
+
+        for (int i = 0; i < OPERATIONS; ++i) {
+            final String key = "k" + random.nextInt(KEYS);
+
+            switch (random.nextInt(6)) {
+                case 0:
+                    Assertions.assertEquals(expected.remove(key), actual.remove(key));
+                    break;
+                case 1:
+                    expected.values().removeIf(v -> v % 3 == 0);
+                    actual.values().removeIf(v -> v % 3 == 0);
+                    break;
+                case 2:
+                    if (random.nextInt(50) == 0) {
+                        expected.clear();
+                        actual.clear();
+                    }
+                    break;
+                default:
+                    Assertions.assertEquals(expected.put(key, i), actual.put(key, i));
+            }
+
+            Assertions.assertEquals(expected, actual);
+            Assertions.assertEquals(expected.hashCode(), actual.hashCode());
+            Assertions.assertEquals(expected.toString(), actual.toString());
+            Assertions.assertEquals(expected.size(), actual.size());
+            Assertions.assertEquals(expected.containsKey(key), actual.containsKey(key));
+            Assertions.assertEquals(expected.get(key), actual.get(key));
+        }
+    }
+
+    @Test
+    public void shouldKeepInsertionOrder() {
+        final Map<String, Integer> map = new CompactMap<>();
+
+        map.put("c", 1);
+        map.put("a", 2);
+        map.put("b", 3);
+        map.put("a", 4);
+
+        Assertions.assertEquals(Arrays.asList("c", "a", "b"), new ArrayList<>(map.keySet()));
+        Assertions.assertEquals(Arrays.asList(1, 4, 3), new ArrayList<>(map.values()));
+    }
+
+    @Test
+    public void shouldKeepInsertionOrderWhenGrowing() {
+        final Map<String, Integer> map = new CompactMap<>();
+        final List<String> keys = new ArrayList<>();
+
+        for (int i = CompactMap.MAX_INLINE_SIZE * 2; i > 0; --i) {
+            keys.add("k" + i);
+            map.put("k" + i, i);
+        }
+
+        Assertions.assertEquals(keys, new ArrayList<>(map.keySet()));
+    }
+
+    @Test
+    public void shouldRetainKeys() {
+        final Map<String, Integer> map = new CompactMap<>();
+
+        map.put("a", 1);
+        map.put("b", 2);
+        map.put("c", 3);
+        map.keySet().retainAll(Arrays.asList("a", "c"));
+
+        Assertions.assertEquals(Arrays.asList("a", "c"), new ArrayList<>(map.keySet()));
+    }
+
+    @Test
+    public void shouldSetValueThroughEntry() {
+        final Map<String, Integer> map = new CompactMap<>();
+
+        map.put("a", 1);
+        map.entrySet().iterator().next().setValue(2);
+
+        Assertions.assertEquals(2, map.get("a"));
+    }
+
+    @Test
+    public void shouldCopyOnWrite() {
+        for (final int size : new int[]{CompactMap.MAX_INLINE_SIZE, CompactMap.MAX_INLINE_SIZE * 2}) {
+            final CompactMap<Integer> map = new CompactMap<>();
+
+            for (int i = 0; i < size; ++i) {
+                map.put("k" + i, i);
+            }
+
+            final Map<String, Integer> expected = new LinkedHashMap<>(map);
+
+            final CompactMap<Integer> copy = new CompactMap<>();
+            copy.share(map);
+
+            copy.put("k0", -1);
+            copy.remove("k1");
+            copy.entrySet().iterator().next().setValue(-2);
+
+            Assertions.assertEquals(expected, map);
+            Assertions.assertEquals(size - 1, copy.size());
+            Assertions.assertEquals(-2, copy.get("k0"));
+
+            map.clear();
+            Assertions.assertEquals(size - 1, copy.size());
+        }
+    }
+
+    @Test
+    public void shouldCopyOnWriteThroughEntrySet() {
+        for (final int size : new int[]{CompactMap.MAX_INLINE_SIZE, CompactMap.MAX_INLINE_SIZE * 2}) {
+            final CompactMap<Integer> map = new CompactMap<>();
+
+            for (int i = 0; i < size; ++i) {
+                map.put("k" + i, i);
+            }
+
+            final Map<String, Integer> expected = new LinkedHashMap<>(map);
+
+            final CompactMap<Integer> copy = new CompactMap<>();
+            copy.share(map);
+
+            Assertions.assertEquals(expected, copy);
+
+            final Iterator<Map.Entry<String, Integer>> iterator = copy.entrySet().iterator();
+            iterator.next().setValue(-1);
+            iterator.next();
+            iterator.remove();
+
+            int count = 2;
+
+            while (iterator.hasNext()) {
+                iterator.next();
+                ++count;
+            }
+
+            Assertions.assertEquals(size, count);
+            Assertions.assertEquals(expected, map);
+            Assertions.assertEquals(size - 1, copy.size());
+            Assertions.assertEquals(-1, copy.get("k0"));
+            Assertions.assertFalse(copy.containsKey("k1"));
+        }
+    }
+
+    @Test
+    public void shouldDetectConcurrentModification() {
+        final Map<String, Integer> map = new CompactMap<>();
+
+        map.put("a", 1);
+        map.put("b", 2);
+
+        final Iterator<String> iterator = map.keySet().iterator();
+        iterator.next();
+        map.remove("b");
+
+        Assertions.assertThrows(ConcurrentModificationException.class, iterator::next);
+        Assertions.assertThrows(ConcurrentModificationException.class, () -> map.forEach((k, v) -> map.put(k + k, v)));
+    }
+
+}
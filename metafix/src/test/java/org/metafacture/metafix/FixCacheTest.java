@@ -0,0 +1,173 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix;
+
+import org.metafacture.metafix.fix.Fix;
+import org.metafacture.metafix.fix.Options;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.nodemodel.INode;
+import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests the on-disk cache of parsed Fix definitions.
+ */
+public class FixCacheTest {
+
+    private static final String FIX = String.join("\n",
+            "# comment",
+            "do list(path: 'a', 'var': '$i')",
+            "  copy_field('$i', 'b.$append')",
+            "end",
+            "if exists(a)",
+            "  add_field(b, 'c\\td')",
+            "elsif any_equal(a, 'x', foo: 'bar')",
+            "  unless is_empty(b)",
+            "    nothing()",
+            "  end",
+            "else",
+            "  remove_field(a)",
+            "end"
+    );
+
+    private static final URI CACHED_URI = URI.createURI("inline:/cached.fix");
+
+    public FixCacheTest() {
+    }
+
+    @Test
+    public void shouldRoundTripXtextParse(@TempDir final Path cacheDir) {
+        final Fix fix = FixStandaloneSetup.parseFix(new StringReader(FIX));
+        final Fix cached = roundTrip(fix, cacheDir);
+
+        final List<EObject> expected = contents(fix);
+        final List<EObject> actual = contents(cached);
+
+        for (int i = 0; i < expected.size(); ++i) {
+            final INode node = NodeModelUtils.getNode(expected.get(i));
+            final FixRuntimeParser.Location location = FixRuntimeParser.getLocation(actual.get(i));
+
+            Assertions.assertEquals(node.getStartLine(), location.getLine());
+            Assertions.assertEquals(NodeModelUtils.getTokenText(node), location.getText());
+        }
+    }
+
+    @Test
+    public void shouldRoundTripRuntimeParse(@TempDir final Path cacheDir) {
+        final Fix fix = FixRuntimeParser.parseFix(new StringReader(FIX));
+        final Fix cached = roundTrip(fix, cacheDir);
+
+        final List<EObject> expected = contents(fix);
+        final List<EObject> actual = contents(cached);
+
+        for (int i = 0; i < expected.size(); ++i) {
+            final FixRuntimeParser.Location expectedLocation = FixRuntimeParser.getLocation(expected.get(i));
+            final FixRuntimeParser.Location actualLocation = FixRuntimeParser.getLocation(actual.get(i));
+
+            Assertions.assertEquals(expectedLocation.getLine(), actualLocation.getLine());
+            Assertions.assertEquals(expectedLocation.getText(), actualLocation.getText());
+        }
+    }
+
+    @Test
+    public void shouldKeyCacheByParser() {
+        Assertions.assertEquals(FixCache.cacheKey(FIX, "xtext"), FixCache.cacheKey(FIX, "xtext"));
+        Assertions.assertNotEquals(FixCache.cacheKey(FIX, "xtext"), FixCache.cacheKey(FIX, "runtime"));
+        Assertions.assertNotEquals(FixCache.cacheKey(FIX, "xtext"), FixCache.cacheKey(FIX + " ", "xtext"));
+    }
+
+    @Test
+    public void shouldIgnoreInvalidCacheFile(@TempDir final Path cacheDir) throws IOException {
+        final Path cacheFile = cacheDir.resolve("invalid.fixc");
+        Files.write(cacheFile, "invalid".getBytes(StandardCharsets.UTF_8));
+
+        Assertions.assertNull(FixCache.read(cacheFile, CACHED_URI));
+    }
+
+    @Test
+    public void shouldIgnoreCacheFileWithInvalidStringLength(@TempDir final Path cacheDir) throws IOException {
+        final Path cacheFile = cacheDir.resolve("test.fixc");
+        FixCache.write(cacheFile, FixRuntimeParser.parseFix(new StringReader(FIX)), FIX);
+
+        // the length of the source, after magic number and version
+        final byte[] bytes = Files.readAllBytes(cacheFile);
+
+        ByteBuffer.wrap(bytes).putInt(8, Integer.MAX_VALUE);
+        Files.write(cacheFile, bytes);
+        Assertions.assertNull(FixCache.read(cacheFile, CACHED_URI));
+
+        ByteBuffer.wrap(bytes).putInt(8, -1);
+        Files.write(cacheFile, bytes);
+        Assertions.assertNull(FixCache.read(cacheFile, CACHED_URI));
+    }
+
+    @Test
+    public void shouldParseCachedContentOfFixFile(@TempDir final Path fixDir) throws IOException {
+        final Path fixFile = fixDir.resolve("test.fix");
+        Files.write(fixFile, "invalid(".getBytes(StandardCharsets.UTF_8));
+
+        final Fix runtimeFix = FixRuntimeParser.parseFix(new StringReader(FIX), fixFile.toString());
+        Assertions.assertTrue(EcoreUtil.equals(FixRuntimeParser.parseFix(new StringReader(FIX)), runtimeFix));
+        Assertions.assertEquals(FixRuntimeParser.fileUri(fixFile.toString()), runtimeFix.eResource().getURI());
+
+        final Fix xtextFix = FixStandaloneSetup.parseFix(new StringReader(FIX), fixFile.toString());
+        Assertions.assertTrue(EcoreUtil.equals(FixStandaloneSetup.parseFix(new StringReader(FIX)), xtextFix));
+        Assertions.assertEquals(FixRuntimeParser.fileUri(fixFile.toString()), xtextFix.eResource().getURI());
+    }
+
+    private Fix roundTrip(final Fix fix, final Path cacheDir) {
+        final Path cacheFile = cacheDir.resolve("test.fixc");
+
+        FixCache.write(cacheFile, fix, FIX);
+        Assertions.assertTrue(Files.isRegularFile(cacheFile));
+
+        final Fix cached = FixCache.read(cacheFile, CACHED_URI);
+
+        Assertions.assertTrue(EcoreUtil.equals(fix, cached));
+        Assertions.assertEquals(CACHED_URI, cached.eResource().getURI());
+        Assertions.assertEquals(contents(fix).size(), contents(cached).size());
+
+        return cached;
+    }
+
+    private List<EObject> contents(final Fix fix) {
+        final List<EObject> contents = new ArrayList<>();
+
+        fix.eAllContents().forEachRemaining(o -> {
+            if (!(o instanceof Options)) {
+                contents.add(o);
+            }
+        });
+
+        return contents;
+    }
+
+}
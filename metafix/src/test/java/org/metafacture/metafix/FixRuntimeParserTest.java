@@ -0,0 +1,190 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix;
+
+import org.metafacture.metafix.fix.Fix;
+import org.metafacture.metafix.fix.Options;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.nodemodel.INode;
+import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests the runtime Fix parser against the Xtext-based parser.
+ */
+public class FixRuntimeParserTest {
+
+    private static final String FIXES = "src/test/resources/org/metafacture/metafix/fixes/";
+
+    public FixRuntimeParserTest() {
+    }
+
+    @Test
+    public void shouldParseMethodCalls() {
+        assertParse(
+                "map(a,b)",
+                "add_field(hello,'world')",
+                "add_field(hello,\"w-o:r l/d\")",
+                "copy_field(stats,output.$append)",
+                "remove_field( my.deep.nested.junk )",
+                "nothing()",
+                "set_array(a, b, c,)",
+                "org.metafacture.metafix.util.TestFunction(data, foo: \"bar\")",
+                "lookup(title, 'map', default: '__default', 'print_unknown': 'true')",
+                "paste(a, b k: v)"
+        );
+    }
+
+    @Test
+    public void shouldParseEscapes() {
+        assertParse(
+                "add_field(a,'\tw\n\torld')",
+                "add_field(a,'\\tw\\n\\torld')",
+                "add_field(a,\"\\r\\\\\")",
+                "add_field(a,'\"world\"')",
+                "add_field(a,\"'world'\")"
+        );
+    }
+
+    @Test
+    public void shouldParseComments() {
+        assertParse(
+                "# comment",
+                "map(a, # comment",
+                "  b)",
+                "/* multi-line",
+                "   comment */",
+                "nothing() # trailing comment",
+                "nothing()"
+        );
+    }
+
+    @Test
+    public void shouldParseConditionals() {
+        assertParse(
+                "if exists(a)",
+                "  add_field(b, 'c')",
+                "elsif any_equal(a, 'x', foo: 'bar')",
+                "  unless is_empty(b)",
+                "    nothing()",
+                "  end",
+                "elsif all_match(a, '.*')",
+                "else",
+                "  # comment",
+                "  remove_field(a)",
+                "end",
+                "if exists(b) nothing() end"
+        );
+    }
+
+    @Test
+    public void shouldParseBinds() {
+        assertParse(
+                "do list(path: 'a', 'var': '$i')",
+                "  do once()",
+                "    copy_field('$i', 'b.$append')",
+                "  end",
+                "end"
+        );
+    }
+
+    @Test
+    public void shouldParseFixFiles() {
+        assertParseFile("base.fix");
+        assertParseFile("filemap.fix");
+        assertParseFile("include.fix");
+        assertParseFile("nested.fix");
+        assertParseFile("once.fix");
+        assertParseFile("vars.fix");
+    }
+
+    @Test
+    public void shouldThrowExceptionForInvalidFix() {
+        assertInvalid("nothing(");
+        assertInvalid("nothing(a b)");
+        assertInvalid("nothing(a, k: v,)");
+        assertInvalid("nothing('\\x')");
+        assertInvalid("nothing('a)");
+        assertInvalid("nothing(1)");
+        assertInvalid("if exists(a)");
+        assertInvalid("end");
+        assertInvalid("/* nothing()");
+    }
+
+    @Test
+    public void shouldThrowExceptionForInvalidFixFile() {
+        final String fixFile = FIXES + "invalid.fix";
+        MetafixTestHelpers.assertThrows(FixParseException.class, "Invalid FixRuntimeParser resource: " + fixFile, () -> FixRuntimeParser.parseFix(fixFile));
+    }
+
+    @Test
+    public void shouldSetResourceUri() {
+        final Fix fix = FixRuntimeParser.parseFix(FIXES + "base.fix");
+        Assertions.assertEquals(FixStandaloneSetup.parseFix(FIXES + "base.fix").eResource().getURI(), fix.eResource().getURI());
+    }
+
+    private void assertParse(final String... fixDef) {
+        final String fix = String.join("\n", fixDef);
+        assertEquivalent(FixStandaloneSetup.parseFix(new StringReader(fix)), FixRuntimeParser.parseFix(new StringReader(fix)));
+    }
+
+    private void assertParseFile(final String fixFile) {
+        assertEquivalent(FixStandaloneSetup.parseFix(FIXES + fixFile), FixRuntimeParser.parseFix(FIXES + fixFile));
+    }
+
+    private void assertInvalid(final String fixDef) {
+        MetafixTestHelpers.assertThrows(FixParseException.class, s -> s.replaceAll("inline:/metafix\\d+\\.fix", "INLINE"),
+                "Invalid FixRuntimeParser resource: INLINE", () -> FixRuntimeParser.parseFix(new StringReader(fixDef)));
+    }
+
+    private void assertEquivalent(final Fix expected, final Fix actual) {
+        Assertions.assertTrue(EcoreUtil.equals(expected, actual), () -> "Expected " + expected + ", got " + actual);
+
+        final List<EObject> expectedContents = contents(expected);
+        final List<EObject> actualContents = contents(actual);
+
+        Assertions.assertEquals(expectedContents.size(), actualContents.size());
+
+        for (int i = 0; i < expectedContents.size(); ++i) {
+            final INode node = NodeModelUtils.getNode(expectedContents.get(i));
+            final FixRuntimeParser.Location location = FixRuntimeParser.getLocation(actualContents.get(i));
+
+            Assertions.assertEquals(node.getStartLine(), location.getLine());
+            Assertions.assertEquals(NodeModelUtils.getTokenText(node), location.getText());
+        }
+    }
+
+    private List<EObject> contents(final Fix fix) {
+        final List<EObject> contents = new ArrayList<>();
+
+        fix.eAllContents().forEachRemaining(o -> {
+            if (!(o instanceof Options)) {
+                contents.add(o);
+            }
+        });
+
+        return contents;
+    }
+
+}
@@ -16,8 +16,6 @@
 
 package org.metafacture.metafix;
 
-import org.metafacture.commons.tries.SimpleRegexTrie;
-
 import nl.jqno.equalsverifier.EqualsVerifier;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -44,8 +42,6 @@ public class HashValueTest {
     public void shouldSatisfyEqualsContract() {
         EqualsVerifier.forClass(Value.Hash.class)
             .withPrefabValues(Value.class, Value.newArray(), Value.newHash())
-            .withPrefabValues(SimpleRegexTrie.class, new SimpleRegexTrie<String>(), new SimpleRegexTrie<String>())
-            .withIgnoredFields("patternMatcher", "prefixCache", "trie", "trieCache")
             .verify();
     }
 
@@ -417,6 +413,38 @@ public class HashValueTest {
         shouldFindArraySubfield("$last");
     }
 
+    @Test
+    public void shouldCompileFieldPatternOnce() {
+        final Value.Hash hash = newHash();
+        hash.put(FIELD, VALUE);
+
+        final String pattern = FIELD.substring(0, 2) + "?*";
+        Assertions.assertTrue(hash.containsField(pattern));
+
+        final long hitCount = Value.Hash.getPatternCacheStats().hitCount();
+        Assertions.assertTrue(hash.containsField(pattern));
+
+        Assertions.assertEquals(hitCount + 1, Value.Hash.getPatternCacheStats().hitCount());
+    }
+
+    @Test
+    public void shouldNotCacheLiteralFieldNames() {
+        final Value.Hash hash = newHash();
+        hash.put(FIELD, VALUE);
+
+        final long requestCount = Value.Hash.getPatternCacheStats().requestCount();
+        Assertions.assertTrue(hash.containsField(FIELD));
+
+        Assertions.assertEquals(requestCount, Value.Hash.getPatternCacheStats().requestCount());
+    }
+
+    @Test
+    public void shouldReuseParsedPath() {
+        final String path = String.join(".", FIELD, "1", OTHER_FIELD);
+        Assertions.assertSame(FixPath.of(path), FixPath.of(path));
+        Assertions.assertEquals(path, FixPath.of(path).toString());
+    }
+
     private Value.Hash newHash() {
         return Value.newHash().asHash();
     }
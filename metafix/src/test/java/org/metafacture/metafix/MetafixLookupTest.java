@@ -25,16 +25,22 @@ import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import com.github.tomakehurst.wiremock.matching.UrlPattern;
 import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -518,6 +524,113 @@ public class MetafixLookupTest {
         );
     }
 
+    @Test
+    public void shouldLookupInSeparateExternalFileMapLoadedEagerly() {
+        assertMap(
+                "put_filemap('" + CSV_MAP + "', 'testMap', load: 'eager')",
+                LOOKUP + " 'testMap')"
+        );
+    }
+
+    @Test
+    public void shouldLookupInSeparateExternalFileMapLoadedInBackground() {
+        assertMap(
+                "put_filemap('" + TSV_MAP + "', 'testMap', sep_char: '\t', load: 'background')",
+                LOOKUP + " 'testMap')"
+        );
+    }
+
+    @Test
+    public void shouldShareSeparateExternalFileMapBetweenInstances() {
+        final CompiledFix compiledFix = CompiledFix.compile("put_filemap('" + CSV_MAP + "', 'testMap')");
+        final Metafix metafix1 = processEmptyRecord(compiledFix);
+        final Metafix metafix2 = processEmptyRecord(compiledFix);
+
+        Assertions.assertSame(metafix1.getMap("testMap"), metafix2.getMap("testMap"));
+        Assertions.assertEquals("Alohaeha", metafix2.getValue("testMap", "Aloha"));
+    }
+
+    @Test
+    public void shouldCacheSeparateExternalFileMapWithVariables() {
+        final Metafix metafix = new Metafix(CompiledFix.compile("put_filemap('$[file]', 'testMap', load: 'background')"), Collections.singletonMap("file", CSV_MAP));
+        metafix.setReceiver(streamReceiver);
+
+        metafix.startRecord("1");
+        metafix.endRecord();
+
+        final Object map = metafix.getMap("testMap");
+
+        metafix.startRecord("2");
+        metafix.endRecord();
+
+        Assertions.assertSame(map, metafix.getMap("testMap"));
+        Assertions.assertEquals("Alohaeha", metafix.getValue("testMap", "Aloha"));
+    }
+
+    @Test
+    public void shouldLookupInSeparateExternalFileMapSnapshot(@TempDir final Path snapshotDir) {
+        final Path snapshot = snapshotDir.resolve("test.snapshot");
+        final String putFileMap = "put_filemap('" + TSV_MAP + "', 'testMap', sep_char: '\t', snapshot: '" + snapshot + "')";
+
+        assertMap(putFileMap, LOOKUP + " 'testMap')");
+        Assertions.assertTrue(Files.isRegularFile(snapshot));
+
+        // reopen existing snapshot
+        Mockito.clearInvocations(streamReceiver);
+        assertMap(putFileMap, LOOKUP + " 'testMap')");
+    }
+
+    @Test
+    public void shouldLookupInSeparateExternalMmapMap(@TempDir final Path tableDir) {
+        final Path table = tableDir.resolve("test.mmap");
+        final String putMmapMap = "put_mmapmap('" + table + "', 'testMap', source: '" + TSV_MAP + "', sep_char: '\t')";
+
+        assertMap(putMmapMap, LOOKUP + " 'testMap')");
+        Assertions.assertTrue(Files.isRegularFile(table));
+
+        // reopen existing table
+        Mockito.clearInvocations(streamReceiver);
+        assertMap("put_mmapmap('" + table + "', 'testMap')", LOOKUP + " 'testMap')");
+    }
+
+    @Test
+    public void shouldNotLookupInMissingSeparateExternalMmapMap(@TempDir final Path tableDir) {
+        final Path table = tableDir.resolve("missing.mmap");
+
+        MetafixTestHelpers.assertThrows(FixExecutionException.class, "Error while loading hash table: " + table, () ->
+            assertMap(
+                    "put_mmapmap('" + table + "', 'testMap', load: 'eager')",
+                    LOOKUP + " 'testMap')"
+            )
+        );
+    }
+
+    @Test
+    public void shouldLookupInSeparateExternalFileMapWithBloomFilter() {
+        assertMap(
+                "put_filemap('" + TSV_MAP + "', 'testMap', sep_char: '\t', bloom_filter: 'true', bloom_filter_fpp: '0.001')",
+                LOOKUP + " 'testMap')"
+        );
+    }
+
+    @Test
+    public void shouldLookupInSeparateExternalFileMapSnapshotWithBloomFilter(@TempDir final Path snapshotDir) {
+        assertMap(
+                "put_filemap('" + CSV_MAP + "', 'testMap', snapshot: '" + snapshotDir.resolve("test.snapshot") + "', bloom_filter: 'true')",
+                LOOKUP + " 'testMap')"
+        );
+    }
+
+    @Test
+    public void shouldNotLookupInSeparateExternalFileMapWithUnknownLoadPolicy() {
+        MetafixTestHelpers.assertThrows(FixExecutionException.class, "Couldn't set parameter - use 'lazy', 'eager' or 'background' as value for 'load'", () ->
+            assertMap(
+                    "put_filemap('" + CSV_MAP + "', 'testMap', load: 'never')",
+                    LOOKUP + " 'testMap')"
+            )
+        );
+    }
+
     @Test
     public void shouldDefineMultipleSeparateMaps() {
         assertMap(
@@ -1166,6 +1279,42 @@ public class MetafixLookupTest {
         );
     }
 
+    @Test
+    public void shouldLookupInSeparateExternalRdfFileMapLoadedEagerly() {
+        assertRdfMap(
+            "put_rdfmap('" + RDF_MAP + "', 'testMapSkosNotation', target: 'skos:notation', load: 'eager')",
+            "lookup('notation', 'testMapSkosNotation')"
+        );
+    }
+
+    @Test
+    public void shouldLookupInSeparateExternalRdfFileMapLoadedInBackground() {
+        assertRdfMap(
+            "put_rdfmap('" + RDF_MAP + "', 'testMapSkosNotation', target: 'skos:notation', load: 'background')",
+            "lookup('notation', 'testMapSkosNotation')"
+        );
+    }
+
+    @Test
+    public void shouldLookupInSeparateExternalRdfFileMapSnapshot(@TempDir final Path snapshotDir) {
+        final Path snapshot = snapshotDir.resolve("test.snapshot");
+
+        assertRdfMap(
+            "put_rdfmap('" + RDF_MAP + "', 'testMapSkosNotation', target: 'skos:notation', snapshot: '" + snapshot + "')",
+            "lookup('notation', 'testMapSkosNotation')"
+        );
+
+        Assertions.assertTrue(Files.isRegularFile(snapshot));
+    }
+
+    @Test
+    public void shouldLookupInSeparateExternalRdfFileMapWithBloomFilter() {
+        assertRdfMap(
+            "put_rdfmap('" + RDF_MAP + "', 'testMapSkosNotation', target: 'skos:notation', bloom_filter: 'true')",
+            "lookup('notation', 'testMapSkosNotation')"
+        );
+    }
+
     @Test
     public void shouldLookupInSeparateExternalRdfFileMapWithDifferentTargets() {
         assertRdfMapWithDifferentTargets(
@@ -1475,4 +1624,14 @@ public class MetafixLookupTest {
         );
     }
 
+    private Metafix processEmptyRecord(final CompiledFix compiledFix) {
+        final Metafix metafix = new Metafix(compiledFix);
+        metafix.setReceiver(streamReceiver);
+
+        metafix.startRecord("1");
+        metafix.endRecord();
+
+        return metafix;
+    }
+
 }
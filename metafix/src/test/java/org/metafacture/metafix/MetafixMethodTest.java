@@ -977,7 +977,7 @@ public class MetafixMethodTest {
         final String text = "append('animals', ' is cool')";
         final String message = "Error while executing Fix expression (at FILE, line 2): " + text;
 
-        MetafixTestHelpers.assertThrows(FixExecutionException.class, s -> s.replaceAll("file:/.+?\\.fix", "FILE"), message, () ->
+        MetafixTestHelpers.assertThrows(FixExecutionException.class, s -> s.replaceAll("(file|inline):/.+?\\.fix", "FILE"), message, () ->
             MetafixTestHelpers.assertFix(streamReceiver, Arrays.asList(
                     "# comment",
                     text,
@@ -4001,6 +4001,46 @@ public class MetafixMethodTest {
         );
     }
 
+    @Test
+    public void shouldApplyPreparedCustomJavaFunction() {
+        MetafixTestHelpers.assertFix(streamReceiver, Arrays.asList(
+                "org.metafacture.metafix.util.TestPreparedFunction(prepared)"
+            ),
+            i -> {
+                i.startRecord("1");
+                i.endRecord();
+                i.startRecord("2");
+                i.endRecord();
+            },
+            o -> {
+                o.get().startRecord("1");
+                o.get().literal("prepared", "1");
+                o.get().endRecord();
+                o.get().startRecord("2");
+                o.get().literal("prepared", "2");
+                o.get().endRecord();
+            }
+        );
+    }
+
+    @Test
+    public void shouldNotPrepareCustomJavaFunctionWithVariables() {
+        MetafixTestHelpers.assertFix(streamReceiver, Arrays.asList(
+                "put_var('field', 'prepared')",
+                "org.metafacture.metafix.util.TestPreparedFunction('$[field]')"
+            ),
+            i -> {
+                i.startRecord("1");
+                i.endRecord();
+            },
+            o -> {
+                o.get().startRecord("1");
+                o.get().literal("prepared", "unprepared");
+                o.get().endRecord();
+            }
+        );
+    }
+
     @Test
     public void shouldUriEncodeString() {
         MetafixTestHelpers.assertFix(streamReceiver, Arrays.asList(
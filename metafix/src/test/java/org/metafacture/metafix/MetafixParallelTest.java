@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix;
+
+import org.metafacture.framework.StreamReceiver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Tests the order-preserving parallel Metafix pipe stage.
+ */
+@ExtendWith(MockitoExtension.class)
+public class MetafixParallelTest {
+
+    private static final int RECORDS = 100;
+
+    @Mock
+    private StreamReceiver streamReceiver;
+
+    public MetafixParallelTest() {
+    }
+
+    @Test
+    public void shouldEmitRecordsInInputOrder() {
+        assertRecordsInInputOrder(false);
+    }
+
+    @Test
+    public void shouldEmitRecordsInInputOrderWithVirtualThreads() {
+        assertRecordsInInputOrder(true);
+    }
+
+    @Test
+    public void shouldPropagateProcessException() {
+        final MetafixParallel metafix = new MetafixParallel("set_array('test[]')\ncopy_field('key', 'test[].1.field')");
+        metafix.setThreads(2);
+        metafix.setWindow(1);
+        metafix.setReceiver(streamReceiver);
+
+        metafix.startRecord("1");
+        metafix.literal("key", "value");
+
+        MetafixTestHelpers.assertProcessException(IllegalArgumentException.class, "Can't find: 1 in: null", metafix::endRecord);
+    }
+
+    @Test
+    public void shouldDiscardPartialRecordOnResetStream() {
+        final MetafixParallel metafix = new MetafixParallel("copy_field(a, b)");
+        metafix.setThreads(2);
+        metafix.setReceiver(streamReceiver);
+
+        metafix.startRecord("1");
+        metafix.startEntity("e");
+        metafix.literal("a", "1");
+        metafix.resetStream();
+
+        metafix.startRecord("2");
+        metafix.literal("a", "2");
+        metafix.endRecord();
+        metafix.closeStream();
+
+        final InOrder ordered = Mockito.inOrder(streamReceiver);
+        ordered.verify(streamReceiver).resetStream();
+        ordered.verify(streamReceiver).startRecord("2");
+        ordered.verify(streamReceiver).literal("a", "2");
+        ordered.verify(streamReceiver).literal("b", "2");
+        ordered.verify(streamReceiver).endRecord();
+        ordered.verify(streamReceiver).closeStream();
+        ordered.verifyNoMoreInteractions();
+    }
+
+    private void assertRecordsInInputOrder(final boolean virtualThreads) {
+        final MetafixParallel metafix = new MetafixParallel("copy_field(a, b)\nif any_equal(a, '3')\n  reject()\nend");
+        metafix.setThreads(4);
+        metafix.setWindow(8);
+        metafix.setVirtualThreads(virtualThreads);
+        metafix.setReceiver(streamReceiver);
+
+        for (int i = 0; i < RECORDS; ++i) {
+            metafix.startRecord(String.valueOf(i));
+            metafix.literal("a", String.valueOf(i));
+            metafix.endRecord();
+        }
+
+        metafix.closeStream();
+
+        final InOrder ordered = Mockito.inOrder(streamReceiver);
+
+        for (int i = 0; i < RECORDS; ++i) {
+            if (i != 3) {
+                ordered.verify(streamReceiver).startRecord(String.valueOf(i));
+                ordered.verify(streamReceiver).literal("a", String.valueOf(i));
+                ordered.verify(streamReceiver).literal("b", String.valueOf(i));
+                ordered.verify(streamReceiver).endRecord();
+            }
+        }
+
+        ordered.verify(streamReceiver).closeStream();
+        ordered.verifyNoMoreInteractions();
+    }
+
+}
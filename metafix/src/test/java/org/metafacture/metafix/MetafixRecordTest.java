@@ -2340,7 +2340,7 @@ public class MetafixRecordTest {
         final String text2 = "append('animals', ' is cool')";
         final String message = String.format(format, 4, text1) + " -> " + String.format(format, 2, text2);
 
-        MetafixTestHelpers.assertThrows(FixExecutionException.class, s -> s.replaceAll("file:/.+?\\.fix", "FILE"), message, () ->
+        MetafixTestHelpers.assertThrows(FixExecutionException.class, s -> s.replaceAll("(file|inline):/.+?\\.fix", "FILE"), message, () ->
             MetafixTestHelpers.assertFix(streamReceiver, Arrays.asList(
                     "do put_macro('test')",
                     text2,
@@ -2370,7 +2370,7 @@ public class MetafixRecordTest {
         final String text2 = "append('animals', ' is cool')";
         final String message = String.format(format, 2, text1) + " -> " + String.format(format, 2, text2);
 
-        MetafixTestHelpers.assertThrows(FixExecutionException.class, s -> s.replaceAll("file:/.+?\\.fix", "FILE"), message, () ->
+        MetafixTestHelpers.assertThrows(FixExecutionException.class, s -> s.replaceAll("(file|inline):/.+?\\.fix", "FILE"), message, () ->
             MetafixTestHelpers.assertFix(streamReceiver, Arrays.asList(
                     "include('src/test/resources/org/metafacture/metafix/fixes/macro.fix')",
                     text1
@@ -3674,7 +3674,6 @@ public class MetafixRecordTest {
     }
 
     @Test
-    @MetafixToDo("See https://github.com/metafacture/metafacture-fix/pull/170")
     public void shouldNotSplitLiteralName() {
         MetafixTestHelpers.assertFix(streamReceiver, Arrays.asList(
                 "nothing()"
@@ -584,6 +584,124 @@ public class MetafixScriptTest {
         });
     }
 
+    @Test
+    public void shouldRejectRecordExceedingMaxRecordSize() {
+        assertStrictness(Metafix.Strictness.RECORD, "nothing()", true, i -> i.setMaxRecordSize(1), o -> {
+            o.get().startRecord("1");
+            o.get().literal("data", "foo");
+            o.get().literal("before", "");
+            o.get().literal("after", "");
+            o.get().endRecord();
+
+            o.get().startRecord("3");
+            o.get().literal("data", "bar");
+            o.get().literal("before", "");
+            o.get().literal("after", "");
+            o.get().endRecord();
+        });
+    }
+
+    @Test
+    public void shouldTruncateRecordExceedingMaxRecordSize() {
+        assertStrictness(Metafix.Strictness.PROCESS, "nothing()", false, i -> {
+            i.setMaxRecordSize(1);
+            i.setRecordSizePolicy(Metafix.RecordSizePolicy.TRUNCATE);
+        }, o -> {
+            o.get().startRecord("1");
+            o.get().literal("data", "foo");
+            o.get().literal("before", "");
+            o.get().literal("after", "");
+            o.get().endRecord();
+
+            o.get().startRecord("2");
+            o.get().literal("data", "foo");
+            o.get().literal("before", "");
+            o.get().literal("after", "");
+            o.get().endRecord();
+
+            o.get().startRecord("3");
+            o.get().literal("data", "bar");
+            o.get().literal("before", "");
+            o.get().literal("after", "");
+            o.get().endRecord();
+        });
+    }
+
+    @Test
+    public void shouldSkipExpressionExceedingMaxRecordSize() {
+        assertStrictness(Metafix.Strictness.EXPRESSION, "split_field('data', 'o')", true, i -> i.setMaxRecordSize(3), o -> {
+            o.get().startRecord("1");
+            o.get().literal("data", "f");
+            o.get().literal("before", "");
+            o.get().literal("after", "");
+            o.get().endRecord();
+
+            o.get().startRecord("2");
+            o.get().literal("data", "foo");
+            o.get().literal("data", "bar");
+            o.get().literal("before", "");
+            o.get().literal("after", "");
+            o.get().endRecord();
+
+            o.get().startRecord("3");
+            o.get().literal("data", "bar");
+            o.get().literal("before", "");
+            o.get().literal("after", "");
+            o.get().endRecord();
+        });
+    }
+
+    @Test
+    public void shouldAbortProcessOnRecordExceedingMaxRecordSize() {
+        MetafixTestHelpers.assertThrows(FixExecutionException.class, "Maximum record size exceeded: 2/1", () ->
+                assertStrictness(Metafix.Strictness.PROCESS, "nothing()", false, i -> i.setMaxRecordSize(1), o -> {
+                })
+        );
+    }
+
+    @Test
+    public void shouldReleaseRecordSizeOfRemovedValues() {
+        MetafixTestHelpers.assertFix(streamReceiver, Arrays.asList(
+                "remove_field('junk')",
+                "split_field('data', 'o')"
+            ),
+            i -> {
+                i.setMaxRecordSize(3);
+
+                i.startRecord("1");
+                i.literal("junk", "a");
+                i.literal("junk", "b");
+                i.literal("data", "foo");
+                i.endRecord();
+            },
+            o -> {
+                o.get().startRecord("1");
+                o.get().literal("data", "f");
+                o.get().endRecord();
+            }
+        );
+    }
+
+    @Test
+    public void shouldLimitJsonParsingToMaxRecordSize() {
+        MetafixTestHelpers.assertThrows(FixExecutionException.class, "Maximum number of values exceeded: 4", () ->
+            MetafixTestHelpers.assertFix(streamReceiver, Arrays.asList(
+                    "from_json('data')"
+                ),
+                i -> {
+                    i.setMaxRecordSize(4);
+                    i.setStrictness(Metafix.Strictness.PROCESS);
+
+                    i.startRecord("1");
+                    i.literal("data", "[\"a\",\"b\",\"c\",\"d\"]");
+                    i.endRecord();
+                },
+                o -> {
+                }
+            )
+        );
+    }
+
     private void assertVar(final String fixDef, final Map<String, String> vars, final Map<String, String> result) {
         assertFix(fixDef, vars, f -> result.forEach((k, v) -> Assertions.assertEquals(v, f.getVars().get(k))));
     }
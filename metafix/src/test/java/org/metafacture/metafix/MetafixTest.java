@@ -16,11 +16,15 @@
 
 package org.metafacture.metafix;
 
+import org.metafacture.framework.StreamReceiver;
 import org.metafacture.metamorph.api.Maps;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -94,6 +98,11 @@ public class MetafixTest {
         Assertions.assertSame(map, metafix.getMap(MAP_NAME));
     }
 
+    @Test
+    public void shouldNotShareCompiledFixWithoutFix() {
+        Assertions.assertNotSame(new Metafix().getCompiledFix(), new Metafix().getCompiledFix());
+    }
+
     @Test
     public void shouldGetEmptyUnknownMap() {
         final Metafix metafix = new Metafix();
@@ -157,6 +166,62 @@ public class MetafixTest {
         Assertions.assertEquals(VALUE, metafix.getValue(MAP_NAME, KEY));
     }
 
+    @Test
+    public void shouldShareCompiledFix() {
+        final CompiledFix compiledFix = CompiledFix.compile("add_field('" + KEY + "', '$[" + KEY + "]')");
+
+        final StreamReceiver receiver1 = Mockito.mock(StreamReceiver.class);
+        final StreamReceiver receiver2 = Mockito.mock(StreamReceiver.class);
+
+        final Metafix metafix1 = new Metafix(compiledFix, Collections.singletonMap(KEY, VALUE + "1"));
+        final Metafix metafix2 = new Metafix(compiledFix, Collections.singletonMap(KEY, VALUE + "2"));
+
+        metafix1.setReceiver(receiver1);
+        metafix2.setReceiver(receiver2);
+
+        metafix1.startRecord("1");
+        metafix2.startRecord("2");
+        metafix2.endRecord();
+        metafix1.endRecord();
+
+        Assertions.assertSame(compiledFix, metafix1.getCompiledFix());
+        Assertions.assertSame(compiledFix, metafix2.getCompiledFix());
+
+        Mockito.verify(receiver1).literal(KEY, VALUE + "1");
+        Mockito.verify(receiver2).literal(KEY, VALUE + "2");
+    }
+
+    @Test
+    public void shouldRecycleRecords() throws IOException {
+        final StreamReceiver receiver = Mockito.mock(StreamReceiver.class);
+
+        final Metafix metafix = new Metafix("add_field('" + KEY + "', '$[" + KEY + "]')\nif exists('reject')\n  reject()\nend", Collections.singletonMap(KEY, VALUE));
+        metafix.setReceiver(receiver);
+        metafix.setRecycleRecords(true);
+
+        metafix.startRecord("1");
+        metafix.literal("reject", VALUE);
+        metafix.endRecord();
+
+        final Record record = metafix.getCurrentRecord();
+
+        metafix.startRecord("2");
+        metafix.literal("other", VALUE);
+        metafix.endRecord();
+
+        Assertions.assertSame(record, metafix.getCurrentRecord());
+        Assertions.assertNull(record.get("reject"));
+
+        Mockito.verify(receiver, Mockito.never()).startRecord("1");
+
+        final InOrder ordered = Mockito.inOrder(receiver);
+        ordered.verify(receiver).startRecord("2");
+        ordered.verify(receiver).literal("other", VALUE);
+        ordered.verify(receiver).literal(KEY, VALUE);
+        ordered.verify(receiver).endRecord();
+        ordered.verifyNoMoreInteractions();
+    }
+
     @Test
     // See https://github.com/metafacture/metafacture-fix/issues/79
     public void shouldThrowExceptionForInvalidFixFile() {
@@ -166,4 +231,10 @@ public class MetafixTest {
         // TODO: Test logging statements
     }
 
+    @Test
+    public void shouldThrowExceptionForInvalidInlineFix() {
+        MetafixTestHelpers.assertThrows(FixParseException.class, s -> s.replaceAll("inline:/metafix\\d+\\.fix", "INLINE"),
+                "Invalid FixStandaloneSetup resource: INLINE", () -> new Metafix("nothing("));
+    }
+
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.PatternSyntaxException;
+
+public class PatternCacheTest {
+
+    private static final String REGEX = "^pattern-cache-test-(\\d+)$";
+
+    public PatternCacheTest() {
+    }
+
+    @Test
+    public void shouldCompilePatternOnce() {
+        Assertions.assertSame(PatternCache.get(REGEX), PatternCache.get(REGEX));
+    }
+
+    @Test
+    public void shouldCountHits() {
+        PatternCache.get(REGEX);
+        final long hitCount = PatternCache.stats().hitCount();
+
+        PatternCache.get(REGEX);
+        Assertions.assertEquals(hitCount + 1, PatternCache.stats().hitCount());
+    }
+
+    @Test
+    public void shouldThrowPatternSyntaxException() {
+        Assertions.assertThrows(PatternSyntaxException.class, () -> PatternCache.get("("));
+    }
+
+}
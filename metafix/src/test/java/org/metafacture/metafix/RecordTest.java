@@ -34,6 +34,45 @@ public class RecordTest {
     public RecordTest() {
     }
 
+    @Test
+    public void shouldReuseRecycledRecord() {
+        final Record record = new Record();
+        record.put(FIELD, VALUE);
+        record.putVirtualField(OTHER_FIELD, OTHER_VALUE);
+        record.setReject(true);
+
+        final Record recycled = record.recycle(false);
+
+        Assertions.assertSame(record, recycled);
+        Assertions.assertTrue(recycled.isEmpty());
+        Assertions.assertFalse(recycled.containsVirtualField(OTHER_FIELD));
+        Assertions.assertFalse(recycled.getReject());
+
+        recycled.put(OTHER_FIELD, VALUE);
+        Assertions.assertEquals(VALUE, recycled.get(OTHER_FIELD));
+    }
+
+    @Test
+    public void shouldDetectRetainedRecycledRecord() {
+        final Record record = new Record();
+        record.put(FIELD, VALUE);
+
+        final Record recycled = record.recycle(true);
+
+        Assertions.assertNotSame(record, recycled);
+        Assertions.assertTrue(recycled.isEmpty());
+
+        MetafixTestHelpers.assertThrows(IllegalStateException.class, "Record used after it has been recycled", () -> record.get(FIELD));
+        MetafixTestHelpers.assertThrows(IllegalStateException.class, "Record used after it has been recycled", () -> record.put(FIELD, VALUE));
+        MetafixTestHelpers.assertThrows(IllegalStateException.class, "Record used after it has been recycled", () -> record.forEach((k, v) -> Assertions.fail(k)));
+        MetafixTestHelpers.assertThrows(IllegalStateException.class, "Record used after it has been recycled", () -> record.containsField(FIELD));
+        MetafixTestHelpers.assertThrows(IllegalStateException.class, "Record used after it has been recycled", () -> record.getField(FIELD));
+        MetafixTestHelpers.assertThrows(IllegalStateException.class, "Record used after it has been recycled", () -> record.remove(FIELD));
+        MetafixTestHelpers.assertThrows(IllegalStateException.class, "Record used after it has been recycled", record::size);
+        MetafixTestHelpers.assertThrows(IllegalStateException.class, "Record used after it has been recycled", record::toString);
+        MetafixTestHelpers.assertThrows(IllegalStateException.class, "Record used after it has been recycled", record::getReject);
+    }
+
     @Test
     public void shouldCreateShallowCloneFromEmptyRecord() {
         final Record record = new Record();
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix;
+
+import org.metafacture.framework.StreamReceiver;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests the interning of field names.
+ */
+public class SymbolTableTest {
+
+    public SymbolTableTest() {
+    }
+
+    @Test
+    public void shouldInternFieldNames() {
+        final SymbolTable symbolTable = new SymbolTable();
+        final String name = symbolTable.intern(newString("field"));
+
+        Assertions.assertSame(name, symbolTable.intern(newString("field")));
+        Assertions.assertEquals(1, symbolTable.size());
+    }
+
+    @Test
+    public void shouldSeedFromPathSegments() {
+        final SymbolTable symbolTable = CompiledFix.compile("copy_field('source.nested', 'target')\nif exists('condition')\n  add_field('added', 'value')\nend").getSymbolTable();
+
+        final List<String> segments = new ArrayList<>();
+        FixPath.of("source.nested").forEachSegment(segments::add);
+
+        Assertions.assertSame(segments.get(0), symbolTable.intern(newString("source")));
+        Assertions.assertSame(segments.get(1), symbolTable.intern(newString("nested")));
+
+        final int size = symbolTable.size();
+        symbolTable.intern(newString("target"));
+        symbolTable.intern(newString("condition"));
+        symbolTable.intern(newString("added"));
+
+        Assertions.assertEquals(size, symbolTable.size());
+    }
+
+    @Test
+    public void shouldNotSeedFromValueParameters() {
+        final SymbolTable symbolTable = CompiledFix.compile("add_field('added', 'value')\nlog('message')\nput_var('name', 'variable')\nadd_field('$[name]', 'other')\nif str_equal('literal', 'other')\n  nothing()\nend").getSymbolTable();
+        final int size = symbolTable.size();
+
+        symbolTable.intern(newString("added"));
+        Assertions.assertEquals(size, symbolTable.size());
+
+        symbolTable.intern(newString("value"));
+        symbolTable.intern(newString("message"));
+        symbolTable.intern(newString("variable"));
+        symbolTable.intern(newString("$[name]"));
+        symbolTable.intern(newString("literal"));
+        Assertions.assertEquals(size + 5, symbolTable.size());
+    }
+
+    @Test
+    public void shouldNotShareFieldNamesWithoutFix() {
+        final List<String> names = new ArrayList<>();
+
+        for (int i = 0; i < 2; ++i) {
+            final Metafix metafix = new Metafix();
+
+            metafix.startRecord(String.valueOf(i));
+            metafix.literal(newString("field"), "value");
+            metafix.finishRecord().forEach((k, v) -> names.add(k));
+        }
+
+        Assertions.assertEquals(2, names.size());
+        Assertions.assertNotSame(names.get(0), names.get(1));
+    }
+
+    @Test
+    public void shouldShareFieldNamesBetweenRecords() {
+        final Metafix metafix = new Metafix(CompiledFix.compile("nothing()"), Metafix.NO_VARS);
+        metafix.setReceiver(Mockito.mock(StreamReceiver.class));
+
+        final List<String> names = new ArrayList<>();
+
+        for (int i = 0; i < 2; ++i) {
+            metafix.startRecord(String.valueOf(i));
+            metafix.literal(newString("field"), "value");
+            metafix.endRecord();
+
+            metafix.getCurrentRecord().forEach((k, v) -> names.add(k));
+        }
+
+        Assertions.assertEquals(2, names.size());
+        Assertions.assertSame(names.get(0), names.get(1));
+    }
+
+    private String newString(final String string) {
+        return new String(string.toCharArray());
+    }
+
+}
@@ -17,6 +17,7 @@
 package org.metafacture.metafix;
 
 import nl.jqno.equalsverifier.EqualsVerifier;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 public class ValueTest {
@@ -29,8 +30,113 @@ public class ValueTest {
         EqualsVerifier.forClass(Value.class)
             .withPrefabValues(Value.class, Value.newArray(), Value.newHash())
             .withPrefabValues(Value.Hash.class, Value.newHash().asHash(), Value.newHash(h -> h.put("k", new Value("v"))).asHash())
-            .withIgnoredFields("path")
+            .withIgnoredFields("path", "pathSegment")
             .verify();
     }
 
+    @Test
+    public void shouldRecognizeNumbers() {
+        Assertions.assertTrue(Value.isNumber("0"));
+        Assertions.assertTrue(Value.isNumber("0123"));
+        Assertions.assertFalse(Value.isNumber(""));
+        Assertions.assertFalse(Value.isNumber("-1"));
+        Assertions.assertFalse(Value.isNumber("1.5"));
+        Assertions.assertFalse(Value.isNumber("\u0661"));
+    }
+
+    @Test
+    public void shouldAppendFieldToPath() {
+        final Value value = new Value("v");
+        Value.newHash(h -> h.put("k", value)).withPathSet("a.b");
+
+        Assertions.assertEquals("k", value.getPath());
+    }
+
+    @Test
+    public void shouldAppendFieldToNestedPath() {
+        final Value hash = Value.newHash().withPathSet("a.b");
+        final Value value = new Value("v").withPathParent(hash);
+        hash.asHash().put("k", value);
+
+        Assertions.assertEquals("a.b.k", value.getPath());
+    }
+
+    @Test
+    public void shouldFollowParentPath() {
+        final Value hash = Value.newHash().withPathSet("a");
+        final Value value = new Value("v").withPathParent(hash);
+        hash.asHash().put("k", value);
+        hash.withPathSet("b");
+
+        Assertions.assertEquals("b.k", value.getPath());
+        Assertions.assertEquals("b", hash.getPath());
+    }
+
+    @Test
+    public void shouldFollowIndexInParentArray() {
+        final Value array = Value.newArray().withPathSet("a");
+        final Value value = new Value("x").withPathParent(array);
+        array.asArray().add(value);
+        Assertions.assertEquals("a.1", value.getPath());
+
+        array.asArray().add(0, new Value("y").withPathParent(array));
+        array.asArray().add(0, new Value("z").withPathParent(array));
+        Assertions.assertEquals("a.3", value.getPath());
+
+        array.asArray().remove(0);
+        Assertions.assertEquals("a.2", value.getPath());
+    }
+
+    @Test
+    public void shouldUpdateIndexesInPathsAfterInsert() {
+        final Value array = Value.newArray().withPathSet("a");
+        array.asArray().add(new Value("x").withPathParent(array));
+        array.asArray().add(new Value("y").withPathParent(array));
+        array.asArray().add(0, new Value("z").withPathParent(array));
+
+        Assertions.assertEquals("a.1", array.asArray().get(0).getPath());
+        Assertions.assertEquals("a.2", array.asArray().get(1).getPath());
+        Assertions.assertEquals("a.3", array.asArray().get(2).getPath());
+    }
+
+    @Test
+    public void shouldUpdateIndexesInMaterializedPathsAfterInsert() {
+        final Value array = Value.newArray().withPathSet("a");
+        array.asArray().add(new Value("x").withPathParent(array));
+        Assertions.assertEquals("a.1", array.asArray().get(0).getPath());
+
+        array.asArray().add(0, new Value("y").withPathParent(array));
+        Assertions.assertEquals("a.2", array.asArray().get(1).getPath());
+    }
+
+    @Test
+    public void shouldNotModifyOriginalArrayFromCopy() {
+        final Value array = Value.newArray(a -> a.add(new Value("x")));
+        final Value copy = array.copy();
+
+        copy.asArray().add(new Value("y"));
+        array.asArray().remove(0);
+
+        Assertions.assertEquals(Value.newArray(), array);
+        Assertions.assertEquals(Value.newArray(a -> {
+            a.add(new Value("x"));
+            a.add(new Value("y"));
+        }), copy);
+    }
+
+    @Test
+    public void shouldNotModifyOriginalHashFromCopy() {
+        final Value hash = Value.newHash(h -> h.put("k", new Value("v")));
+        final Value copy = hash.copy();
+
+        copy.asHash().put("k", new Value("w"));
+        hash.asHash().put("l", new Value("v"));
+
+        Assertions.assertEquals(Value.newHash(h -> {
+            h.put("k", new Value("v"));
+            h.put("l", new Value("v"));
+        }), hash);
+        Assertions.assertEquals(Value.newHash(h -> h.put("k", new Value("w"))), copy);
+    }
+
 }
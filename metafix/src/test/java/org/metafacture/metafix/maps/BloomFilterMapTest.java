@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix.maps;
+
+import org.metafacture.metafix.FixExecutionException;
+import org.metafacture.metafix.MetafixTestHelpers;
+import org.metafacture.metamorph.api.Maps;
+
+import com.google.common.collect.ForwardingMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the Bloom filter guard of lookup maps.
+ */
+public class BloomFilterMapTest {
+
+    private static final int ENTRIES = 10000;
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicInteger queries = new AtomicInteger();
+
+    public BloomFilterMapTest() {
+    }
+
+    @Test
+    public void shouldNotWrapMapWithoutOption() {
+        final Map<String, String> map = map();
+        Assertions.assertSame(map, BloomFilterMap.of(map, loads::incrementAndGet, c -> map.keySet().forEach(c), Collections.emptyMap()));
+    }
+
+    @Test
+    public void shouldLookupEntries() {
+        final Map<String, String> map = bloomFilterMap(null);
+
+        for (int i = 0; i < ENTRIES; ++i) {
+            Assertions.assertEquals("value" + i, map.get("key" + i));
+            Assertions.assertTrue(map.containsKey("key" + i));
+        }
+
+        Assertions.assertEquals("default", map.get(Maps.DEFAULT_MAP_KEY));
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void shouldRejectMostMisses() {
+        final Map<String, String> map = bloomFilterMap("0.001");
+        queries.set(0);
+
+        for (int i = 0; i < ENTRIES; ++i) {
+            Assertions.assertNull(map.get("miss" + i));
+        }
+
+        Assertions.assertTrue(queries.get() < ENTRIES / 100, () -> queries.get() + " queries");
+    }
+
+    @Test
+    public void shouldLoadEagerly() {
+        final Map<String, String> map = map();
+        BloomFilterMap.of(map, loads::incrementAndGet, c -> map.keySet().forEach(c), options("0.1", "eager"));
+
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void shouldThrowExceptionForInvalidFalsePositiveRate() {
+        assertInvalid("0");
+        assertInvalid("1");
+        assertInvalid("-0.5");
+        assertInvalid("often");
+    }
+
+    private void assertInvalid(final String fpp) {
+        MetafixTestHelpers.assertThrows(FixExecutionException.class, "Couldn't set parameter - use a number between 0 and 1 (exclusive) as value for 'bloom_filter_fpp'",
+                () -> bloomFilterMap(fpp));
+    }
+
+    private Map<String, String> bloomFilterMap(final String fpp) {
+        final Map<String, String> map = map();
+        return BloomFilterMap.of(map, loads::incrementAndGet, c -> map.keySet().forEach(c), options(fpp, null));
+    }
+
+    private Map<String, String> map() {
+        final Map<String, String> entries = new HashMap<>();
+
+        for (int i = 0; i < ENTRIES; ++i) {
+            entries.put("key" + i, "value" + i);
+        }
+
+        entries.put(Maps.DEFAULT_MAP_KEY, "default");
+
+        return new ForwardingMap<String, String>() {
+            @Override
+            public String get(final Object key) {
+                queries.incrementAndGet();
+                return super.get(key);
+            }
+
+            @Override
+            protected Map<String, String> delegate() {
+                return entries;
+            }
+        };
+    }
+
+    private Map<String, String> options(final String fpp, final String load) {
+        final Map<String, String> options = new HashMap<>();
+        options.put(BloomFilterMap.BLOOM_FILTER_OPTION, "true");
+
+        if (fpp != null) {
+            options.put(BloomFilterMap.FPP_OPTION, fpp);
+        }
+
+        if (load != null) {
+            options.put(LoadingMap.LOAD_OPTION, load);
+        }
+
+        return options;
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix.maps;
+
+import org.metafacture.metafix.FixExecutionException;
+import org.metafacture.metafix.MetafixTestHelpers;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Tests the memory-mapped hash table lookup maps.
+ */
+public class MmapMapTest {
+
+    private static final int ENTRIES = 100000;
+
+    public MmapMapTest() {
+    }
+
+    @Test
+    public void shouldLookupEntries(@TempDir final Path dir) throws IOException {
+        final MmapMap map = mmapMap(dir, "Aloha\tAlohaeha\nMoin\tMoin zäme\nÄ\tä\n\tempty\n");
+
+        Assertions.assertEquals("Alohaeha", map.get("Aloha"));
+        Assertions.assertEquals("Moin zäme", map.get("Moin"));
+        Assertions.assertEquals("ä", map.get("Ä"));
+        Assertions.assertEquals("empty", map.get(""));
+        Assertions.assertNull(map.get("Hallo"));
+        Assertions.assertEquals(4, map.getCount());
+    }
+
+    @Test
+    public void shouldLookupManyEntries(@TempDir final Path dir) throws IOException {
+        final StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < ENTRIES; ++i) {
+            builder.append("key").append(i).append('\t').append("value").append(i).append('\n');
+        }
+
+        final MmapMap map = mmapMap(dir, builder.toString());
+
+        for (int i = 0; i < ENTRIES; ++i) {
+            Assertions.assertEquals("value" + i, map.get("key" + i));
+        }
+
+        Assertions.assertNull(map.get("key" + ENTRIES));
+        Assertions.assertEquals(ENTRIES, map.getCount());
+    }
+
+    @Test
+    public void shouldOverrideDuplicateKeys(@TempDir final Path dir) throws IOException {
+        final MmapMap map = mmapMap(dir, "Aloha\tAlohaeha\nAloha\tServus\n");
+
+        Assertions.assertEquals("Servus", map.get("Aloha"));
+        Assertions.assertEquals(1, map.getCount());
+    }
+
+    @Test
+    public void shouldIgnoreLinesWithoutSeparator(@TempDir final Path dir) throws IOException {
+        final MmapMap map = mmapMap(dir, "Aloha\nMoin\tMoin zäme\n");
+
+        Assertions.assertNull(map.get("Aloha"));
+        Assertions.assertEquals(1, map.getCount());
+    }
+
+    @Test
+    public void shouldLookupInEmptyTable(@TempDir final Path dir) throws IOException {
+        final MmapMap map = mmapMap(dir, "");
+
+        Assertions.assertNull(map.get("Aloha"));
+        Assertions.assertEquals(0, map.getCount());
+    }
+
+    @Test
+    public void shouldOpenExistingTable(@TempDir final Path dir) throws IOException {
+        mmapMap(dir, "Aloha\tAlohaeha\n").load();
+        Assertions.assertEquals("Alohaeha", new MmapMap(dir.resolve("table").toString()).get("Aloha"));
+    }
+
+    @Test
+    public void shouldRebuildTableIfSourceIsNewer(@TempDir final Path dir) throws IOException {
+        mmapMap(dir, "Aloha\tAlohaeha\n").load();
+        Files.setLastModifiedTime(dir.resolve("table"), FileTime.fromMillis(0L));
+
+        Assertions.assertEquals("Servus", mmapMap(dir, "Aloha\tServus\n").get("Aloha"));
+    }
+
+    @Test
+    public void shouldNotRebuildTableIfSourceIsOlder(@TempDir final Path dir) throws IOException {
+        mmapMap(dir, "Aloha\tAlohaeha\n").load();
+
+        final MmapMap map = mmapMap(dir, "Aloha\tServus\n");
+        Files.setLastModifiedTime(dir.resolve("source"), FileTime.fromMillis(0L));
+
+        Assertions.assertEquals("Alohaeha", map.get("Aloha"));
+    }
+
+    @Test
+    public void shouldThrowExceptionForInvalidTable(@TempDir final Path dir) throws IOException {
+        final Path table = dir.resolve("table");
+        Files.write(table, "invalid".getBytes(StandardCharsets.UTF_8));
+
+        MetafixTestHelpers.assertThrows(FixExecutionException.class, "Invalid hash table file: " + table, () -> new MmapMap(table.toString()).get("Aloha"));
+    }
+
+    private MmapMap mmapMap(final Path dir, final String content) throws IOException {
+        final Path source = dir.resolve("source");
+        Files.write(source, content.getBytes(StandardCharsets.UTF_8));
+
+        final MmapMap map = new MmapMap(dir.resolve("table").toString());
+        map.setSource(source.toString(), "\t");
+
+        return map;
+    }
+
+}
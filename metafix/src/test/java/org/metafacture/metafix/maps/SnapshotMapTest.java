@@ -0,0 +1,120 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix.maps;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Tests the memory-mapped lookup map snapshots.
+ */
+public class SnapshotMapTest {
+
+    private static final Map<String, String> NO_OPTIONS = Collections.emptyMap();
+
+    private final AtomicInteger builds = new AtomicInteger();
+
+    public SnapshotMapTest() {
+    }
+
+    @Test
+    public void shouldLookupEntries(@TempDir final Path dir) throws IOException {
+        final SnapshotMap map = snapshotMap(dir, "Aloha,Alohaeha\nMoin,Moin zäme\nÄ,ä\nZ,z\n", NO_OPTIONS);
+
+        Assertions.assertEquals("Alohaeha", map.get("Aloha"));
+        Assertions.assertEquals("Moin zäme", map.get("Moin"));
+        Assertions.assertEquals("ä", map.get("Ä"));
+        Assertions.assertEquals("z", map.get("Z"));
+        Assertions.assertNull(map.get("Hallo"));
+        Assertions.assertNull(map.get(""));
+        Assertions.assertNull(map.get("Alo"));
+    }
+
+    @Test
+    public void shouldLookupInEmptySnapshot(@TempDir final Path dir) throws IOException {
+        Assertions.assertNull(snapshotMap(dir, "", NO_OPTIONS).get("Aloha"));
+    }
+
+    @Test
+    public void shouldReuseSnapshot(@TempDir final Path dir) throws IOException {
+        snapshotMap(dir, "Aloha,Alohaeha\n", NO_OPTIONS).load();
+        Assertions.assertEquals("Alohaeha", snapshotMap(dir, "Aloha,Alohaeha\n", NO_OPTIONS).get("Aloha"));
+        Assertions.assertEquals(1, builds.get());
+    }
+
+    @Test
+    public void shouldReuseSnapshotIfSourceIsTouched(@TempDir final Path dir) throws IOException {
+        snapshotMap(dir, "Aloha,Alohaeha\n", NO_OPTIONS).load();
+        Files.setLastModifiedTime(dir.resolve("source"), FileTime.fromMillis(0L));
+
+        Assertions.assertEquals("Alohaeha", snapshotMap(dir, "Aloha,Alohaeha\n", NO_OPTIONS).get("Aloha"));
+        Assertions.assertEquals(1, builds.get());
+    }
+
+    @Test
+    public void shouldRebuildSnapshotIfSourceChanges(@TempDir final Path dir) throws IOException {
+        snapshotMap(dir, "Aloha,Alohaeha\n", NO_OPTIONS).load();
+
+        Assertions.assertEquals("Servus", snapshotMap(dir, "Aloha,Servus\n", NO_OPTIONS).get("Aloha"));
+        Assertions.assertEquals(2, builds.get());
+    }
+
+    @Test
+    public void shouldRebuildSnapshotIfOptionsChange(@TempDir final Path dir) throws IOException {
+        snapshotMap(dir, "Aloha,Alohaeha\n", NO_OPTIONS).load();
+        snapshotMap(dir, "Aloha,Alohaeha\n", Collections.singletonMap(LoadingMap.LOAD_OPTION, "eager")).load();
+        Assertions.assertEquals(1, builds.get());
+
+        snapshotMap(dir, "Aloha,Alohaeha\n", Collections.singletonMap("sep_char", ",")).load();
+        Assertions.assertEquals(2, builds.get());
+    }
+
+    private SnapshotMap snapshotMap(final Path dir, final String content, final Map<String, String> options) throws IOException {
+        final Path source = dir.resolve("source");
+
+        if (!Files.exists(source) || !content.equals(new String(Files.readAllBytes(source), StandardCharsets.UTF_8))) {
+            Files.write(source, content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        final Consumer<BiConsumer<String, String>> entries = c -> {
+            builds.incrementAndGet();
+
+            for (final String line : content.split("\n")) {
+                final String[] parts = line.split(",");
+
+                if (parts.length == 2) {
+                    c.accept(parts[0], parts[1]);
+                }
+            }
+        };
+
+        return new SnapshotMap(dir.resolve("snapshot").toString(), Collections.singletonList(source.toString()), options, entries);
+    }
+
+}
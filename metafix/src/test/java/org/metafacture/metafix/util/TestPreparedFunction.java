@@ -0,0 +1,48 @@
+/*
+ * Copyright 2026 hbz NRW
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metafix.util;
+
+import org.metafacture.metafix.Metafix;
+import org.metafacture.metafix.Record;
+import org.metafacture.metafix.Value;
+import org.metafacture.metafix.api.FixFunction;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public class TestPreparedFunction implements FixFunction {
+
+    public TestPreparedFunction() {
+    }
+
+    @Override
+    public void apply(final Metafix metafix, final Record record, final List<String> params, final Map<String, String> options) {
+        record.set(params.get(0), new Value("unprepared"));
+    }
+
+    @Override
+    public FixFunction prepare(final Metafix metafix, final List<String> params, final Map<String, String> options) {
+        final LongAdder counter = new LongAdder();
+
+        return (m, r, p, o) -> {
+            counter.increment();
+            r.set(p.get(0), new Value(counter.intValue()));
+        };
+    }
+
+}